@@ -0,0 +1,97 @@
+package study.querydsl.change;
+
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.ChangeOperation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <엔티티 변경 → outbox 저장 Hibernate 리스너>
+ *     - Member, Team 의 insert / update / delete SQL 이 실행된 직후(flush 중) 같은 커넥션으로 이벤트를 저장한다.
+ *     - 커밋 후가 아니라 flush 중에 저장하므로, 변경과 이벤트가 항상 같이 커밋/롤백된다.
+ *     - 커밋되면 테이블 버전(TableVersions)을 올린다.
+ * */
+@Component
+public class ChangeEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Set<Class<?>> TRACKED = Set.of(Member.class, Team.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TableVersions tableVersions;
+
+    public ChangeEventListener(EntityManagerFactory entityManagerFactory, TableVersions tableVersions) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableVersions = tableVersions;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeOperation.INSERT);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeOperation.UPDATE);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeOperation.DELETE);
+    }
+
+    // 커밋 후 처리가 아니므로 false
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object entity, Serializable id, ChangeOperation operation) {
+        Class<?> entityClass = Hibernate.getClass(entity);
+        if (!TRACKED.contains(entityClass)) {
+            return;
+        }
+        try {
+            ChangeOutbox.insert(session.connection(), entityClass.getSimpleName(), List.of((Long) id), operation);
+        } catch (SQLException e) {
+            throw session.getFactory().getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "change outbox insert failed");
+        }
+
+        // 커밋된 후에 테이블 버전을 올린다. (Hibernate 트랜잭션 완료 콜백)
+        String table = TableVersions.tableOf(entityClass);
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            if (success) {
+                tableVersions.bump(table);
+            }
+        });
+    }
+}
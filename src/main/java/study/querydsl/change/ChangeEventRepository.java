@@ -0,0 +1,21 @@
+package study.querydsl.change;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.querydsl.entity.ChangeEvent;
+
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    // 처리 위치 다음 이벤트를 순번 순서로 조회
+    List<ChangeEvent> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+
+    // 모든 구독자가 처리한 이벤트 삭제
+    @Modifying
+    @Query("delete from ChangeEvent e where e.seq <= :seq")
+    int deleteUpTo(@Param("seq") Long seq);
+}
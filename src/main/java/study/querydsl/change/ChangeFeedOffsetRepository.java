@@ -0,0 +1,7 @@
+package study.querydsl.change;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.querydsl.entity.ChangeFeedOffset;
+
+public interface ChangeFeedOffsetRepository extends JpaRepository<ChangeFeedOffset, String> {
+}
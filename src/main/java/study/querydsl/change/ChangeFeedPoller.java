@@ -0,0 +1,149 @@
+package study.querydsl.change;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.entity.ChangeFeedOffset;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadContext;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * <변경 피드 폴러>
+ *     - change_event 테이블을 주기적으로 읽어서 구독자(ChangeSubscriber)에게 순번(seq) 순서대로 전달한다.
+ *     - 구독자별 처리 위치(ChangeFeedOffset)는 전달이 성공한 후에 저장한다. (at-least-once)
+ *     - 구독자 하나가 실패해도 다른 구독자는 계속 받는다. (실패한 구독자는 다음 주기에 같은 이벤트부터 다시)
+ *
+ *     - 순번은 커밋 순서대로 빈 구간 없이 보인다. (ChangeOutbox 가 순번 행을 잠그고 받음)
+ *       : 처리 위치보다 작은 순번이 나중에 커밋되는 일이 없으므로, 처리 위치까지는 삭제해도 된다.
+ *         (id 는 insert 순서라서, 오래 걸린 트랜잭션의 이벤트가 더 큰 id 보다 늦게 커밋될 수 있음)
+ *     - 모든 구독자가 처리한 이벤트는 삭제한다.
+ *     - 폴링은 내부 백그라운드(BACKGROUND) 커넥션 풀에서 실행한다. (구독자의 DB 조회 포함)
+ *       : 사용자 요청의 허가(WorkloadAdmission)를 쓰지 않으므로, 부하가 높아도 내보내기 요청과 자리를 다투지 않는다.
+ *
+ *     - change-feed.enabled=false 로 끌 수 있다.
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "change-feed.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeFeedPoller {
+
+    private final ObjectProvider<ChangeSubscriber> subscribers;
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeFeedOffsetRepository changeFeedOffsetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollIntervalMs;
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeFeedPoller(ObjectProvider<ChangeSubscriber> subscribers,
+                            ChangeEventRepository changeEventRepository,
+                            ChangeFeedOffsetRepository changeFeedOffsetRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${change-feed.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${change-feed.batch-size:500}") int batchSize) {
+        this.subscribers = subscribers;
+        this.changeEventRepository = changeEventRepository;
+        this.changeFeedOffsetRepository = changeFeedOffsetRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+    }
+
+    // 구독자 빈이 모두 준비된 후에 폴링을 시작한다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 한번 폴링
+     *     - 반환값 : 구독자들에게 전달한 이벤트 수 (합계)
+     * */
+    public synchronized int poll() {
+        return WorkloadContext.call(Workload.BACKGROUND, this::pollOnce);
+    }
+
+    private int pollOnce() {
+        List<ChangeSubscriber> targets = subscribers.orderedStream().collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        int delivered = 0;
+        long minOffset = Long.MAX_VALUE;
+        for (ChangeSubscriber subscriber : targets) {
+            long offset = readOffset(subscriber.name());
+            try {
+                int count = deliver(subscriber, offset);
+                delivered += count;
+                offset = readOffset(subscriber.name());
+            } catch (RuntimeException e) {
+                log.warn("change feed delivery failed. subscriber={}, offset={}", subscriber.name(), offset, e);
+            }
+            minOffset = Math.min(minOffset, offset);
+        }
+
+        long purgeUpTo = minOffset;
+        if (purgeUpTo > 0) {
+            transactionTemplate.executeWithoutResult(status -> changeEventRepository.deleteUpTo(purgeUpTo));
+        }
+        return delivered;
+    }
+
+    private int deliver(ChangeSubscriber subscriber, long offset) {
+        List<ChangeEvent> events = transactionTemplate.execute(status ->
+                changeEventRepository.findBySeqGreaterThanOrderBySeqAsc(offset, PageRequest.of(0, batchSize)));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        subscriber.onChanges(events);
+
+        Long lastSeq = events.get(events.size() - 1).getSeq();
+        transactionTemplate.executeWithoutResult(status ->
+                changeFeedOffsetRepository.findById(subscriber.name())
+                        .orElseGet(() -> changeFeedOffsetRepository.save(new ChangeFeedOffset(subscriber.name(), 0L)))
+                        .moveTo(lastSeq));
+        return events.size();
+    }
+
+    private long readOffset(String subscriber) {
+        Long offset = transactionTemplate.execute(status -> changeFeedOffsetRepository.findById(subscriber)
+                .map(ChangeFeedOffset::getLastSeq)
+                .orElse(0L));
+        return offset == null ? 0L : offset;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("change feed poll failed", e);
+        }
+    }
+}
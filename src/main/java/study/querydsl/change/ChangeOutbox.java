@@ -0,0 +1,112 @@
+package study.querydsl.change;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.ChangeOperation;
+
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * <트랜잭션 outbox 저장>
+ *     - 변경 이벤트를 "변경과 같은 커넥션(트랜잭션)" 으로 change_event 테이블에 저장한다.
+ *     - 엔티티 변경 : ChangeEventListener 가 flush 시점에 자동으로 저장한다.
+ *     - 벌크 연산(Querydsl update, JDBC, StatelessSession) : 엔티티 이벤트가 없으므로 record() 를 직접 호출한다.
+ *
+ *     - 저장할 때 순번 행(change_sequence)을 잠그고 순번(seq)을 받는다. (커밋 순서 = 순번 순서)
+ *       : 잠금은 커밋까지 유지되어 이벤트를 저장하는 트랜잭션끼리는 커밋을 기다리므로, 커밋 직전에 저장한다.
+ *         (엔티티 : flush 시점, 벌크 연산 : 변경을 모두 실행한 후)
+ * */
+@Component
+@DependsOn("entityManagerFactory")     // 순번 행은 스키마 생성(ddl-auto) 후에 만든다.
+public class ChangeOutbox {
+
+    public static final String SEQUENCE_NAME = "change_event";
+
+    private static final String INSERT_SQL =
+            "insert into change_event (seq, entity_type, entity_id, operation, created_at) values (?, ?, ?, ?, ?)";
+    private static final String RESERVE_SQL = "update change_sequence set last_seq = last_seq + ? where name = ?";
+    private static final String LAST_SEQ_SQL = "select last_seq from change_sequence where name = ?";
+    private static final String INIT_SQL = "insert into change_sequence (name, last_seq) select ?, 0" +
+            " where not exists (select 1 from change_sequence where name = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TableVersions tableVersions;
+
+    public ChangeOutbox(JdbcTemplate jdbcTemplate, TableVersions tableVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableVersions = tableVersions;
+    }
+
+    // 순번 행이 없으면 만든다.
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.update(INIT_SQL, SEQUENCE_NAME, SEQUENCE_NAME);
+    }
+
+    /**
+     * 현재 스프링 트랜잭션에 변경 이벤트 저장
+     *     - 트랜잭션 안에서 호출해야 변경과 같이 커밋/롤백된다.
+     *     - 커밋 후 테이블 버전(TableVersions)을 올린다.
+     * */
+    public void record(Class<?> entityClass, Collection<Long> entityIds, ChangeOperation operation) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            insert(connection, entityClass.getSimpleName(), entityIds, operation);
+            return null;
+        });
+        tableVersions.bumpAfterCommit(TableVersions.tableOf(entityClass));
+    }
+
+    /**
+     * 주어진 커넥션에 변경 이벤트 저장 (JDBC batch)
+     * */
+    public static void insert(Connection connection, String entityType,
+                              Collection<Long> entityIds, ChangeOperation operation) throws SQLException {
+        long seq = reserve(connection, entityIds.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (Long entityId : entityIds) {
+                ps.setLong(1, seq++);
+                ps.setString(2, entityType);
+                ps.setLong(3, entityId);
+                ps.setString(4, operation.name());
+                ps.setTimestamp(5, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * 순번 count 개 받기
+     *     - 순번 행을 잠근다. (커밋/롤백까지, 다른 트랜잭션은 여기서 기다림)
+     *     - 반환값 : 첫번째 순번
+     * */
+    private static long reserve(Connection connection, int count) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(RESERVE_SQL)) {
+            ps.setInt(1, count);
+            ps.setString(2, SEQUENCE_NAME);
+            if (ps.executeUpdate() != 1) {
+                throw new SQLException("change_sequence 행이 없습니다. name=" + SEQUENCE_NAME);
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(LAST_SEQ_SQL)) {
+            ps.setString(1, SEQUENCE_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1) - count + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.change;
+
+import org.springframework.util.ClassUtils;
+import study.querydsl.entity.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * <변경 피드 구독자>
+ *     - 스프링 빈으로 등록하면 ChangeFeedPoller 가 변경 이벤트를 순번(커밋) 순서대로 전달한다.
+ *     - 최소 1번 전달(at-least-once) : 처리 중 예외가 나거나 재시작하면 같은 이벤트를 다시 받을 수 있으므로
+ *       onChanges() 는 여러번 호출돼도 결과가 같도록(멱등) 만든다.
+ *     - 처리 위치는 name() 별로 저장되므로 이름을 바꾸면 처음부터 다시 받는다.
+ * */
+public interface ChangeSubscriber {
+
+    default String name() {
+        return ClassUtils.getUserClass(getClass()).getSimpleName();
+    }
+
+    void onChanges(List<ChangeEvent> events);
+}
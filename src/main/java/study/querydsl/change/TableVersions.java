@@ -0,0 +1,69 @@
+package study.querydsl.change;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <테이블 버전 카운터>
+ *     - member, team 테이블이 바뀔 때마다 버전을 1씩 올린다. (ETag 계산용)
+ *     - 커밋된 후에 올린다. (커밋 전에 올리면 이전 데이터가 새 버전으로 캐시될 수 있음)
+ *     - 버전은 메모리에만 있으므로 시작 시각(epoch)을 같이 사용한다. (재시작하면 모든 ETag 가 바뀜)
+ *
+ *     - 엔티티 변경 : ChangeEventListener, 벌크 연산 : ChangeOutbox.record() / MemberBulkRepository 가 올린다.
+ * */
+@Component
+public class TableVersions {
+
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+
+    private final long epoch = System.currentTimeMillis();
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long version(String table) {
+        AtomicLong version = versions.get(table);
+        return version == null ? 0L : version.get();
+    }
+
+    /**
+     * 테이블들의 현재 버전 (epoch:버전1:버전2...)
+     * */
+    public String snapshot(String... tables) {
+        StringBuilder snapshot = new StringBuilder().append(epoch);
+        for (String table : tables) {
+            snapshot.append(':').append(version(table));
+        }
+        return snapshot.toString();
+    }
+
+    public void bump(String table) {
+        versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 스프링 트랜잭션 안이면 커밋 후에, 아니면 바로 버전을 올린다.
+     * */
+    public void bumpAfterCommit(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(table);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(table);
+            }
+        });
+    }
+
+    // 엔티티 클래스 -> 테이블명 (Member -> member)
+    public static String tableOf(Class<?> entityClass) {
+        return entityClass.getSimpleName().toLowerCase(Locale.ROOT);
+    }
+}
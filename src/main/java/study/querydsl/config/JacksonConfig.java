@@ -0,0 +1,97 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+
+/**
+ * <Jackson 직렬화 설정>
+ *     - 스프링 부트는 Module 빈을 ObjectMapper 에 자동으로 등록한다. (JSON, Smile 모두)
+ *     - memberDtoModule : 자주 나가는 DTO 는 리플렉션/빈 분석 없이 직접 쓴다. (필드명은 미리 인코딩)
+ *     - blackbirdModule : 나머지 빈은 getter 호출을 리플렉션 대신 생성한 람다(LambdaMetafactory)로 한다.
+ *
+ *     - DTO 에 필드를 추가하면 아래 Serializer 에도 추가할 것.
+ * */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module memberDtoModule() {
+        SimpleModule module = new SimpleModule("memberDtoModule");
+        module.addSerializer(MemberTeamDto.class, new MemberTeamDtoSerializer());
+        module.addSerializer(MemberDto.class, new MemberDtoSerializer());
+        return module;
+    }
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    static final class MemberTeamDtoSerializer extends StdSerializer<MemberTeamDto> {
+
+        private static final SerializedString MEMBER_ID = new SerializedString("memberId");
+        private static final SerializedString USERNAME = new SerializedString("username");
+        private static final SerializedString AGE = new SerializedString("age");
+        private static final SerializedString TEAM_ID = new SerializedString("teamId");
+        private static final SerializedString TEAM_NAME = new SerializedString("teamName");
+
+        MemberTeamDtoSerializer() {
+            super(MemberTeamDto.class);
+        }
+
+        @Override
+        public void serialize(MemberTeamDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            gen.writeFieldName(MEMBER_ID);
+            writeNumber(gen, dto.getMemberId());
+            gen.writeFieldName(USERNAME);
+            gen.writeString(dto.getUsername());
+            gen.writeFieldName(AGE);
+            gen.writeNumber(dto.getAge());
+            gen.writeFieldName(TEAM_ID);
+            writeNumber(gen, dto.getTeamId());
+            gen.writeFieldName(TEAM_NAME);
+            gen.writeString(dto.getTeamName());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class MemberDtoSerializer extends StdSerializer<MemberDto> {
+
+        private static final SerializedString USERNAME = new SerializedString("username");
+        private static final SerializedString AGE = new SerializedString("age");
+
+        MemberDtoSerializer() {
+            super(MemberDto.class);
+        }
+
+        @Override
+        public void serialize(MemberDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            gen.writeFieldName(USERNAME);
+            gen.writeString(dto.getUsername());
+            gen.writeFieldName(AGE);
+            gen.writeNumber(dto.getAge());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.config;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import study.querydsl.repository.support.QueryGovernor;
+import study.querydsl.repository.support.QueryLimit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * <엔드포인트별 쿼리 제한 적용>
+ *     - 요청 시작 시 컨트롤러 메소드의 @QueryLimit 값(없으면 기본값)을 QueryGovernor 에 설정하고, 끝나면 지운다.
+ *     - 비동기 요청(StreamingResponseBody 등)은 요청 스레드를 반납할 때 지운다. (다른 스레드에서는 기본값)
+ * */
+public class QueryLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private final QueryGovernor queryGovernor;
+
+    public QueryLimitInterceptor(QueryGovernor queryGovernor) {
+        this.queryGovernor = queryGovernor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryLimit limit = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethodAnnotation(QueryLimit.class)
+                : null;
+        if (limit == null) {
+            queryGovernor.enter(0, 0);
+        } else {
+            queryGovernor.enter(limit.timeoutMs(), limit.maxRows());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        queryGovernor.exit();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        queryGovernor.exit();
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import study.querydsl.repository.support.QueryGovernor;
+
+/**
+ * <목록 잘라냄 표시>
+ *     - QueryGovernor 가 목록을 잘라냈으면 응답 헤더로 알린다. (본문을 쓰기 전에 헤더를 붙여야 하므로 인터셉터가 아닌 ResponseBodyAdvice)
+ *       : X-Result-Truncated: true
+ *       : X-Result-Limit: 최대 행 수
+ * */
+@ControllerAdvice
+public class QueryTruncationAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String TRUNCATED_HEADER = "X-Result-Truncated";
+    public static final String LIMIT_HEADER = "X-Result-Limit";
+
+    private final QueryGovernor queryGovernor;
+
+    public QueryTruncationAdvice(QueryGovernor queryGovernor) {
+        this.queryGovernor = queryGovernor;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (queryGovernor.isTruncated()) {
+            response.getHeaders().set(TRUNCATED_HEADER, "true");
+            response.getHeaders().set(LIMIT_HEADER, String.valueOf(queryGovernor.maxRows()));
+        }
+        return body;
+    }
+}
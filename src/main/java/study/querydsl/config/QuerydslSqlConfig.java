@@ -0,0 +1,34 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * <querydsl-sql 설정>
+ *     - SQLQueryFactory : SQL 쿼리 타입(SMember, STeam)으로 JPQL 을 거치지 않고 바로 SQL 을 실행한다.
+ *     - 커넥션은 현재 스프링 트랜잭션의 커넥션을 사용한다. (SpringConnectionProvider, JPA 트랜잭션과 같은 커넥션)
+ *       : 트랜잭션 밖에서 실행하면 IllegalStateException
+ *     - SQL 예외는 스프링 DataAccessException 으로 바꾼다. (SpringExceptionTranslator)
+ * */
+@Configuration
+public class QuerydslSqlConfig {
+
+    @Bean
+    public com.querydsl.sql.Configuration querydslSqlConfiguration() {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(new H2Templates());
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return configuration;
+    }
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(com.querydsl.sql.Configuration querydslSqlConfiguration,
+                                           DataSource dataSource) {
+        return new SQLQueryFactory(querydslSqlConfiguration, new SpringConnectionProvider(dataSource));
+    }
+}
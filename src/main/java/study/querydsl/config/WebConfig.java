@@ -0,0 +1,74 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.repository.support.QueryGovernor;
+import study.querydsl.workload.WorkloadAdmission;
+
+import java.util.List;
+
+/**
+ * <웹 설정>
+ *     - Smile(바이너리 JSON) 응답 추가 : Accept: application/x-jackson-smile
+ *       : 필드명은 사전(back-reference)으로 인코딩되어 행마다 반복되지 않는다. (CHECK_SHARED_NAMES, 기본값)
+ *       : 짧은 문자열 값(팀명 등)도 반복되면 사전으로 인코딩한다. (CHECK_SHARED_STRING_VALUES)
+ *     - Accept 가 없거나 JSON 이면 기존처럼 JSON 으로 응답한다. (Smile 컨버터는 맨 뒤에 추가)
+ *     - 작업 종류(@WorkloadType), 엔드포인트별 쿼리 제한(@QueryLimit) 인터셉터 등록
+ *     - 비동기 응답(스트리밍)은 exportExecutor 에서 쓴다. (WorkloadConfig)
+ * */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    // 스프링 부트 Jackson 설정(모듈, 날짜 형식 등)을 그대로 사용하기 위해서 (prototype 빈)
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final QueryGovernor queryGovernor;
+    private final WorkloadAdmission workloadAdmission;
+    private final ThreadPoolTaskExecutor exportExecutor;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder, QueryGovernor queryGovernor,
+                     WorkloadAdmission workloadAdmission, ThreadPoolTaskExecutor exportExecutor) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.queryGovernor = queryGovernor;
+        this.workloadAdmission = workloadAdmission;
+        this.exportExecutor = exportExecutor;
+    }
+
+    @Bean
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        Jackson2ObjectMapperBuilder builder = objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::json);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new WorkloadInterceptor(workloadAdmission));
+        registry.addInterceptor(new QueryLimitInterceptor(queryGovernor));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor);
+    }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadContext;
+import study.querydsl.workload.WorkloadRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <작업 종류별 자원 분리 (bulkhead)>
+ *     - DataSource : 작업 종류(Workload)마다 Hikari 풀을 따로 만들고, WorkloadRoutingDataSource 로 선택한다.
+ *       : 접속 정보는 spring.datasource.* 를 그대로 사용하고, 풀 크기만 workload.<key>.pool-size 로 정한다.
+ *       : workload.bulkheads.enabled=false 면 스프링 부트 기본 DataSource (풀 1개)
+ *     - exportExecutor : 스트리밍 응답(StreamingResponseBody)을 쓰는 스레드 풀 (WebConfig 에서 MVC 비동기 실행기로 등록)
+ *       : 요청 스레드(톰캣)를 바로 반납하므로, 대량 내보내기가 톰캣 스레드를 잡고 있지 않는다.
+ *       : 제출한 스레드의 작업 종류(EXPORT)를 그대로 사용한다. (TaskDecorator)
+ * */
+@Configuration
+public class WorkloadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "workload.bulkheads.enabled", havingValue = "true", matchIfMissing = true)
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Map<Object, Object> pools = new HashMap<>();
+        for (Workload workload : Workload.values()) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            pool.setPoolName("workload-" + workload.getKey());
+            pool.setMaximumPoolSize(environment.getProperty("workload." + workload.getKey() + ".pool-size",
+                    Integer.class, workload.getDefaultPoolSize()));
+            pools.put(workload, pool);
+        }
+
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(pools);
+        dataSource.setDefaultTargetDataSource(pools.get(Workload.INTERACTIVE));
+        return dataSource;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${workload.export.threads:4}") int threads,
+                                                 @Value("${workload.export.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("workload-export-");
+        executor.setTaskDecorator(WorkloadContext::wrap);
+        return executor;
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadAdmission;
+import study.querydsl.workload.WorkloadContext;
+import study.querydsl.workload.WorkloadRejectedException;
+import study.querydsl.workload.WorkloadType;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * <요청 작업 종류 적용>
+ *     - 컨트롤러 메소드의 @WorkloadType(없으면 INTERACTIVE)을 요청 스레드에 설정한다. (커넥션 풀 선택)
+ *     - 대화형 외의 요청은 WorkloadAdmission 의 허가를 받는다. 자리가 없으면 기다리지 않고 바로 503 + Retry-After
+ *       : 요청 스레드(Tomcat)를 잡고 기다리면 대화형 요청까지 스레드가 모자라게 된다.
+ *       : 허가는 요청 속성에 보관하므로, 비동기 요청(스트리밍)은 응답을 다 쓴 후(async dispatch 종료)에 반납한다.
+ *     - 대화형 요청은 응답 시간을 기록한다. (p99 계산)
+ * */
+public class WorkloadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = WorkloadInterceptor.class.getName() + ".permit";
+    private static final String STARTED = WorkloadInterceptor.class.getName() + ".started";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final WorkloadAdmission workloadAdmission;
+
+    public WorkloadInterceptor(WorkloadAdmission workloadAdmission) {
+        this.workloadAdmission = workloadAdmission;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Workload workload = workloadOf(handler);
+        WorkloadContext.set(workload);
+
+        if (workload == Workload.INTERACTIVE) {
+            if (request.getAttribute(STARTED) == null) {
+                request.setAttribute(STARTED, System.nanoTime());
+            }
+            return true;
+        }
+        if (request.getAttribute(PERMIT) != null) {
+            return true;    // 비동기 재디스패치 (이미 허가 받음)
+        }
+        if (!workloadAdmission.tryAcquire(workload)) {
+            WorkloadContext.clear();
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            throw new WorkloadRejectedException(workload);
+        }
+        request.setAttribute(PERMIT, workload);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        WorkloadContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        WorkloadContext.clear();
+
+        Object permit = request.getAttribute(PERMIT);
+        if (permit != null) {
+            request.removeAttribute(PERMIT);
+            workloadAdmission.release((Workload) permit);
+        }
+        Object started = request.getAttribute(STARTED);
+        if (started != null) {
+            request.removeAttribute(STARTED);
+            workloadAdmission.recordInteractive((System.nanoTime() - (Long) started) / 1_000_000L);
+        }
+    }
+
+    private static Workload workloadOf(Object handler) {
+        WorkloadType type = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethodAnnotation(WorkloadType.class)
+                : null;
+        return type == null ? Workload.INTERACTIVE : type.value();
+    }
+}
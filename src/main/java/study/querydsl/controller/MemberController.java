@@ -1,50 +1,184 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.querydsl.core.types.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.config.WebConfig;
+import study.querydsl.dto.AutocompleteDto;
+import study.querydsl.dto.MemberExpandDto;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchResult;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.PageResponse;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberFilter;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+import study.querydsl.repository.support.QueryLimit;
+import study.querydsl.service.AutocompleteIndex;
+import study.querydsl.service.MemberSearchBatchService;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadType;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_MULTI_GET_IDS = 1000;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberTestRepository memberTestRepository;
+    private final AutocompleteIndex autocompleteIndex;
+    private final MemberSearchBatchService memberSearchBatchService;
+    private final MemberPageStreamer memberPageStreamer;
+    private final SmileFactory smileFactory;
+    private final MemberSearchEtag memberSearchEtag;
 
     /**
      *  <Test URL>
      *      - 전체 조회 : http://localhost:8080/v1/members
      *      - 조건 조회 : 나이가 30살 보다 어리면서, 팀은 ATEAM 회원만 검색하기.
      *                  http://localhost:8080/v1/members?ageLoe=30&teamName=ATEAM
+     *      - 조건부 조회 : 응답의 ETag 를 If-None-Match 로 보내면, 회원/팀이 바뀌지 않은 경우 304 (v2 ~ v4 도 같음)
+     *      - 최대 행 수(query-governor.max-rows)를 넘으면 잘라내고 X-Result-Truncated: true 헤더를 붙인다.
      *
      * */
+    @QueryLimit(timeoutMs = 2000)
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request) {
+        if (memberSearchEtag.checkNotModified(request, condition, null)) {
+            return null;    // 304 Not Modified (쿼리 없음)
+        }
         return memberJpaRepository.search(condition);
     }
 
+    /**
+     *  <Multi-get Test URL>
+     *      - id 목록으로 한번에 조회 : http://localhost:8080/members?ids=3,5,4
+     *      - 요청한 id 순서대로 반환, 없는 id는 제외
+     *      - 회원 조회 1번 + 팀 배치 조회 1번
+     *
+     * */
+    @GetMapping(value = "/members", params = "ids")
+    public List<MemberTeamDto> findMembersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_MULTI_GET_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "ids는 최대 " + MAX_MULTI_GET_IDS + "개까지 조회할 수 있습니다.");
+        }
+        return memberJpaRepository.findAllById(ids).stream()
+                .map(MemberTeamDto::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *  <Batch Search Test URL>
+     *      - 검색 조건 여러개를 한번에 : POST http://localhost:8080/members/search:batch
+     *                                  [{"teamName":"ATEAM"}, {"teamName":"BTEAM","ageGoe":20}, {"username":"member1"}]
+     *      - 결과는 요청 순서(index) 별로 반환, 조건은 최대 50개
+     *      - index 마다 최대 행 수(query-governor.max-rows)로 잘라내고, 잘라냈으면 truncated: true
+     *      - 대량 조회(EXPORT) 커넥션 풀을 사용하고, 동시 실행 수를 넘거나 화면 검색이 느려지면 바로 거절(503)된다.
+     *
+     * */
+    @WorkloadType(Workload.EXPORT)
+    @PostMapping("/members/search:batch")
+    public Map<Integer, MemberSearchResult> searchMembersBatch(@RequestBody List<MemberSearchCondition> conditions) {
+        try {
+            return memberSearchBatchService.search(conditions);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     *  <Autocomplete Test URL>
+     *      - 회원명/팀명 자동완성 : http://localhost:8080/members/autocomplete?prefix=mem&limit=10
+     *      - DB 조회 없이 메모리 인덱스에서 찾는다. (대소문자 구분 없음)
+     *
+     * */
+    @GetMapping("/members/autocomplete")
+    public List<AutocompleteDto> autocomplete(@RequestParam String prefix,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return autocompleteIndex.suggest(prefix, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+    }
+
     /**
      *  <Simple Page Test URL>
      *      - 전체 조회 : http://localhost:8080/v2/members
      *      - 조건 조회 : 나이가 30살 보다 어리면서, 팀은 ATEAM 회원만 검색하기.
      *                  http://localhost:8080/v2/members?page=0&size=2
+     *      - 응답 : PageResponse (content, page, size, total, hasNext) - v3, v4 도 같음
+     *      - 페이지 크기가 최대 행 수를 넘거나 offset 이 query-governor.max-offset 을 넘으면 400 - v3, v4 도 같음
      *
      * */
+    @QueryLimit(timeoutMs = 2000)
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public PageResponse<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable,
+                                                      WebRequest request) {
+        if (memberSearchEtag.checkNotModified(request, condition, pageable)) {
+            return null;
+        }
+        return PageResponse.of(memberRepository.searchPageSimple(condition, pageable));
     }
 
 
 
+    /**
+     *  <Streaming Page Test URL>
+     *      - 대용량 페이지 : http://localhost:8080/v2/members/stream?page=1&size=2000&sort=age,desc
+     *      - JDBC 결과를 DTO 없이 바로 JSON 으로 쓴다. 페이지 정보(page, size, total, hasNext)는 마지막에 나온다.
+     *      - 정렬 가능 속성 : id, memberId, username, age, teamId, teamName
+     *      - 페이지 크기는 2000 까지 허용한다. (행을 메모리에 모으지 않으므로)
+     *      - 대량 조회(EXPORT) 커넥션 풀/스레드를 사용하고, 동시 실행 수를 넘거나 화면 검색이 느려지면 바로 거절(503)된다.
+     *
+     * */
+    @WorkloadType(Workload.EXPORT)
+    @QueryLimit(maxRows = 2000)
+    @GetMapping(value = "/v2/members/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamMembers(MemberSearchCondition condition, Pageable pageable) {
+        try {
+            return memberPageStreamer.stream(condition, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Accept: application/x-jackson-smile 이면 같은 스트리밍 응답을 Smile 로 쓴다.
+    @WorkloadType(Workload.EXPORT)
+    @QueryLimit(maxRows = 2000)
+    @GetMapping(value = "/v2/members/stream", produces = WebConfig.APPLICATION_SMILE_VALUE)
+    public StreamingResponseBody streamMembersSmile(MemberSearchCondition condition, Pageable pageable) {
+        try {
+            return memberPageStreamer.stream(condition, pageable, smileFactory);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     /**
      *  <Complex Page Test URL>
      *      - 전체 조회 : http://localhost:8080/v3/members
@@ -52,9 +186,14 @@ public class MemberController {
      *                  http://localhost:8080/v3/members?page=1&size=5
      *
      * */
+    @QueryLimit(timeoutMs = 2000)
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageCount(condition, pageable);
+    public PageResponse<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                                      WebRequest request) {
+        if (memberSearchEtag.checkNotModified(request, condition, pageable)) {
+            return null;
+        }
+        return PageResponse.of(memberRepository.searchPageCount(condition, pageable));
     }
 
     /**
@@ -64,10 +203,62 @@ public class MemberController {
      *                  http://localhost:8080/v4/members?page=0&size=120
      *
      * */
+    @QueryLimit(timeoutMs = 2000)
     @GetMapping("/v4/members")
-    public Page<MemberTeamDto> searchPageCount(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageCount(condition, pageable);
+    public PageResponse<MemberTeamDto> searchPageCount(MemberSearchCondition condition, Pageable pageable,
+                                                       WebRequest request) {
+        if (memberSearchEtag.checkNotModified(request, condition, pageable)) {
+            return null;
+        }
+        return PageResponse.of(memberRepository.searchPageCount(condition, pageable));
+    }
+
+    /**
+     *  <Fetch Plan Test URL>
+     *      - 회원만 조회     : http://localhost:8080/v5/members
+     *      - 회원 + 팀 조회  : http://localhost:8080/v5/members?expand=team
+     *      - 요청한 연관관계만 한번의 쿼리로 조회한다. (N+1, 불필요한 조인 모두 방지)
+     *
+     * */
+    @GetMapping("/v5/members")
+    public Page<MemberExpandDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable,
+                                                @RequestParam(required = false) Set<String> expand) {
+        Set<String> fetchPlan = expand == null ? Set.of() : expand;
+        Page<Member> members;
+        try {
+            members = memberTestRepository.searchPageWithExpand(condition, pageable, fetchPlan);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        boolean expandTeam = fetchPlan.contains("team");
+        return members.map(member -> MemberExpandDto.of(member, expandTeam));
     }
 
+    /**
+     *  <필터 Test URL> (@QuerydslPredicate)
+     *      - 회원명 앞부분 : http://localhost:8080/members/filter?username=An
+     *      - 나이 범위     : http://localhost:8080/members/filter?age=20&age=30&sort=age,desc
+     *      - 팀 ID 목록    : http://localhost:8080/members/filter?team.id=1&team.id=2
+     *      - 허용 목록(MemberFilter) 밖의 파라미터/정렬, 조건 없는 요청은 400
+     *
+     * */
+    @QueryLimit(timeoutMs = 1000)
+    @GetMapping("/members/filter")
+    public PageResponse<MemberTeamDto> filterMembers(
+            @QuerydslPredicate(root = Member.class, bindings = MemberRepository.class) Predicate predicate,
+            @RequestParam MultiValueMap<String, String> parameters,
+            Pageable pageable) {
+        try {
+            MemberFilter.validate(parameters, pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return PageResponse.of(memberTestRepository.searchByFilter(predicate, pageable));
+    }
 
+    // 필터 파라미터 변환 실패 (age=abc 등) : @QuerydslPredicate 바인딩 중에 발생하므로 400 으로 바꾼다.
+    @ExceptionHandler(ConversionFailedException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void filterConversionFailed() {
+    }
 }
@@ -0,0 +1,155 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJdbcRepository;
+import study.querydsl.repository.MemberSearchSql;
+import study.querydsl.repository.support.QueryGovernor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static study.querydsl.repository.MemberJdbcRepository.*;
+
+/**
+ * <회원 페이지 JSON 스트리밍>
+ *     - JDBC ResultSet 을 읽으면서 바로 JSON 으로 쓴다. (DTO, List, PageImpl 을 만들지 않음)
+ *     - 필드명은 미리 인코딩해 둔 SerializedString 을 사용한다.
+ *     - 건수는 행을 다 쓴 후에 계산하므로 페이지 정보(page, size, total, hasNext)는 마지막에 쓴다.
+ *
+ *     {"content":[{"memberId":1,"username":"member1","age":10,"teamId":1,"teamName":"ATEAM"}, ...],
+ *      "page":0,"size":10,"total":100,"hasNext":true}
+ * */
+@Component
+public class MemberPageStreamer {
+
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString AGE = new SerializedString("age");
+    private static final SerializedString TEAM_ID = new SerializedString("teamId");
+    private static final SerializedString TEAM_NAME = new SerializedString("teamName");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString TOTAL = new SerializedString("total");
+    private static final SerializedString HAS_NEXT = new SerializedString("hasNext");
+
+    // 첫 바이트가 빨리 나가도록 처음 몇 행은 바로 flush 한다.
+    private static final int EARLY_FLUSH_ROWS = 1;
+
+    private final MemberJdbcRepository memberJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final QueryGovernor queryGovernor;
+
+    public MemberPageStreamer(MemberJdbcRepository memberJdbcRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              QueryGovernor queryGovernor) {
+        this.memberJdbcRepository = memberJdbcRepository;
+        this.queryGovernor = queryGovernor;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 스트리밍 응답 생성
+     *     - 조건/정렬/페이지 크기/offset 검증은 여기서 바로 한다. (응답을 쓰기 시작한 후에는 400 을 줄 수 없으므로)
+     *     - 행과 건수는 같은 읽기 전용 트랜잭션에서 조회한다.
+     * */
+    public StreamingResponseBody stream(MemberSearchCondition condition, Pageable pageable) {
+        return stream(condition, pageable, objectMapper.getFactory());
+    }
+
+    /**
+     * 스트리밍 응답 생성 (포맷 지정 : JSON, Smile 등)
+     * */
+    public StreamingResponseBody stream(MemberSearchCondition condition, Pageable pageable, JsonFactory format) {
+        queryGovernor.checkPage(pageable);
+        MemberSearchSql where = memberJdbcRepository.where(condition);
+        String orderBy = orderBy(pageable.getSort());
+
+        return outputStream -> {
+            try (JsonGenerator generator = format.createGenerator(outputStream, JsonEncoding.UTF8)) {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try {
+                        writePage(generator, where, orderBy, pageable);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void writePage(JsonGenerator generator, MemberSearchSql where, String orderBy,
+                           Pageable pageable) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(CONTENT);
+        generator.writeStartArray();
+
+        int[] rows = {0};
+        boolean hasNext = memberJdbcRepository.streamPage(where, orderBy, pageable, rs -> {
+            try {
+                writeRow(generator, rs);
+                if (++rows[0] <= EARLY_FLUSH_ROWS) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        generator.writeEndArray();
+
+        // 마지막 페이지면 건수 쿼리를 생략한다. (PageableExecutionUtils 와 같은 규칙)
+        long offset = pageable.getOffset();
+        long total = !hasNext && (offset == 0 || rows[0] > 0)
+                ? offset + rows[0]
+                : memberJdbcRepository.count(where);
+
+        generator.writeFieldName(PAGE);
+        generator.writeNumber(pageable.getPageNumber());
+        generator.writeFieldName(SIZE);
+        generator.writeNumber(pageable.getPageSize());
+        generator.writeFieldName(TOTAL);
+        generator.writeNumber(total);
+        generator.writeFieldName(HAS_NEXT);
+        generator.writeBoolean(hasNext);
+        generator.writeEndObject();
+    }
+
+    private void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(MEMBER_ID);
+        generator.writeNumber(rs.getLong(COLUMN_MEMBER_ID));
+        generator.writeFieldName(USERNAME);
+        generator.writeString(rs.getString(COLUMN_USERNAME));
+        generator.writeFieldName(AGE);
+        generator.writeNumber(rs.getInt(COLUMN_AGE));
+        generator.writeFieldName(TEAM_ID);
+        long teamId = rs.getLong(COLUMN_TEAM_ID);
+        if (rs.wasNull()) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(teamId);
+        }
+        generator.writeFieldName(TEAM_NAME);
+        generator.writeString(rs.getString(COLUMN_TEAM_NAME));
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,84 @@
+package study.querydsl.controller;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.change.TableVersions;
+import study.querydsl.dto.AgeRange;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <회원 검색 ETag>
+ *     - ETag = member/team 테이블 버전 + 정규화한 검색 조건 + 페이지 정보 + Accept 헤더
+ *       : 같은 조건이라도 JSON / Smile 응답은 다른 ETag 가 되고, 캐시가 구분하도록 Vary: Accept 를 붙인다.
+ *     - 테이블이 바뀌지 않았으면 같은 요청은 같은 ETag 가 되므로, If-None-Match 가 같으면 쿼리 없이 304 를 돌려준다.
+ *     - 정규화 : 빈 문자열/공백은 조건 없음, 0 이하 나이는 조건 없음 (검색 조건 메서드와 같은 규칙)
+ *       : 회원명/팀명 목록은 정렬, 나이 범위 목록은 합친 범위(AgeRange.merge) 기준
+ * */
+@Component
+public class MemberSearchEtag {
+
+    private final TableVersions tableVersions;
+
+    public MemberSearchEtag(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    /**
+     * 조건부 조회 확인
+     *     - 응답에 ETag, Vary: Accept 를 붙이고, If-None-Match 가 같으면 true (304)
+     * */
+    public boolean checkNotModified(WebRequest request, MemberSearchCondition condition, Pageable pageable) {
+        if (request instanceof ServletWebRequest && ((ServletWebRequest) request).getResponse() != null) {
+            ((ServletWebRequest) request).getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(of(condition, pageable, request.getHeader(HttpHeaders.ACCEPT)));
+    }
+
+    public String of(MemberSearchCondition condition, Pageable pageable, String accept) {
+        // 버전을 먼저 읽는다. (쿼리 도중 바뀌면 다음 요청에서 ETag 가 달라짐)
+        StringBuilder key = new StringBuilder(tableVersions.snapshot(TableVersions.MEMBER, TableVersions.TEAM));
+        key.append("|a=").append(normalizeAccept(accept))
+           .append("|u=").append(sorted(condition.usernameValues()))
+           .append("|t=").append(sorted(condition.teamNameValues()))
+           .append("|goe=").append(Math.max(condition.getAgeGoe(), 0))
+           .append("|loe=").append(Math.max(condition.getAgeLoe(), 0))
+           .append("|any=").append(condition.isMatchAny());
+        for (AgeRange range : condition.ageRangeValues()) {
+            key.append("|r=").append(range.getGoe()).append('-').append(range.getLoe());
+        }
+        if (pageable != null && pageable.isPaged()) {
+            key.append("|p=").append(pageable.getPageNumber())
+               .append("|s=").append(pageable.getPageSize());
+            for (Sort.Order order : pageable.getSort()) {
+                key.append("|o=").append(order.getProperty()).append(',').append(order.getDirection());
+            }
+        }
+        return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Accept 가 없으면 */* (대소문자, 공백 무시)
+    private static String normalizeAccept(String accept) {
+        return StringUtils.hasText(accept)
+                ? StringUtils.trimAllWhitespace(accept).toLowerCase(Locale.ROOT)
+                : "*/*";
+    }
+
+    // 여러 값 조건은 순서와 상관없이 같은 ETag (값 사이 구분자는 NUL 문자)
+    private static String sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return String.join("\0", sorted);
+    }
+}
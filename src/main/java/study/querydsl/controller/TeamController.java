@@ -0,0 +1,53 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.TeamQueryRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamQueryRepository teamQueryRepository;
+    private final MemberJpaRepository memberJpaRepository;
+
+    /**
+     *  <Team Roster Test URL>
+     *      - 팀 + 소속 회원 목록 : http://localhost:8080/teams
+     *      - 페이징           : http://localhost:8080/teams?page=1&size=2
+     *      - 기본 정렬은 팀 id 순서
+     *
+     * */
+    @GetMapping("/teams")
+    public Page<TeamMembersDto> searchTeams(@PageableDefault(sort = "id") Pageable pageable) {
+        return teamQueryRepository.searchTeamsWithMembers(pageable);
+    }
+
+    /**
+     *  <Team Rebalancing Test URL>
+     *      - 회원들을 팀으로 한번에 옮기기 : POST http://localhost:8080/teams/1/members  [3, 5, 7]
+     *      - 반환값 : 옮긴 회원 수
+     *
+     * */
+    @PostMapping("/teams/{teamId}/members")
+    public long reassignMembers(@PathVariable Long teamId, @RequestBody List<Long> memberIds) {
+        try {
+            return memberJpaRepository.reassignTeam(memberIds, teamId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+}
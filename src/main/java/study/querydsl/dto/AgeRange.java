@@ -0,0 +1,93 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// 나이 범위 검색 조건 : goe <= age <= loe (0 이하는 한쪽 제한 없음)
+@Data
+@NoArgsConstructor
+public class AgeRange {
+
+    private int goe;    // ~보다 큰나이 (포함)
+    private int loe;    // ~보다 작은나이 (포함)
+
+    public AgeRange(int goe, int loe) {
+        this.goe = goe;
+        this.loe = loe;
+    }
+
+    public boolean hasGoe() {
+        return goe > 0;
+    }
+
+    public boolean hasLoe() {
+        return loe > 0;
+    }
+
+    // 빈 범위 (goe > loe) : 어떤 나이도 포함하지 않는다.
+    public boolean matchesNothing() {
+        return hasLoe() && goe > loe;
+    }
+
+    // 정리된 범위 목록(merge 결과)이 빈 범위뿐인지 여부
+    public static boolean matchesNothing(List<AgeRange> merged) {
+        return merged.size() == 1 && merged.get(0).matchesNothing();
+    }
+
+    /**
+     * <나이 범위 정리>
+     *     - 빈 범위(goe > loe), 제한 없는 범위(둘 다 0 이하)를 정리하고, 겹치거나 이어지는 범위는 하나로 합친다.
+     *     - 결과는 시작 나이 순서 (서로 겹치지 않음)
+     *     - 제한 없는 범위가 있으면 빈 목록 (나이 조건 없음과 같음)
+     *     - 모든 범위가 빈 범위면 빈 범위 1개 (결과 없음, matchesNothing)
+     * */
+    public static List<AgeRange> merge(Collection<AgeRange> ranges) {
+        List<AgeRange> sorted = new ArrayList<>();
+        if (ranges == null) {
+            return sorted;
+        }
+        AgeRange empty = null;
+        for (AgeRange range : ranges) {
+            if (range == null) {
+                continue;
+            }
+            if (!range.hasGoe() && !range.hasLoe()) {
+                return new ArrayList<>();
+            }
+            int goe = Math.max(range.getGoe(), 0);
+            int loe = range.hasLoe() ? range.getLoe() : Integer.MAX_VALUE;
+            if (goe <= loe) {
+                sorted.add(new AgeRange(goe, loe));
+            } else if (empty == null) {
+                empty = new AgeRange(range.getGoe(), range.getLoe());
+            }
+        }
+        if (sorted.isEmpty() && empty != null) {
+            sorted.add(empty);
+            return sorted;
+        }
+        sorted.sort(Comparator.comparingInt(AgeRange::getGoe));
+
+        List<AgeRange> merged = new ArrayList<>();
+        for (AgeRange range : sorted) {
+            AgeRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && (long) range.getGoe() <= (long) last.getLoe() + 1) {
+                last.setLoe(Math.max(last.getLoe(), range.getLoe()));
+            } else {
+                merged.add(range);
+            }
+        }
+        // 제한 없는 끝은 다시 0 으로
+        for (AgeRange range : merged) {
+            if (range.getLoe() == Integer.MAX_VALUE) {
+                range.setLoe(0);
+            }
+        }
+        return merged;
+    }
+}
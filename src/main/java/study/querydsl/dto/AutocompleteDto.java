@@ -0,0 +1,19 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class AutocompleteDto {
+
+    private String text;
+    private String type;    // MEMBER, TEAM
+    private int count;      // 같은 이름을 가진 회원(팀) 수
+
+    public AutocompleteDto(String text, String type, int count) {
+        this.text = text;
+        this.type = type;
+        this.count = count;
+    }
+}
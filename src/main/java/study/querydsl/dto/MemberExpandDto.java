@@ -0,0 +1,53 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import org.hibernate.proxy.HibernateProxy;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * <요청 기반 fetch plan 응답 DTO>
+ *     - team 은 expand=team 으로 요청한 경우에만 채워진다. (요청하지 않으면 JSON 에서 생략)
+ *     - teamId 는 외래키 값이므로 팀을 로딩하지 않고도 항상 채운다.
+ * */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberExpandDto {
+
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private TeamDto team;
+
+    public MemberExpandDto(Long memberId, String username, int age, Long teamId, TeamDto team) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.team = team;
+    }
+
+    public static MemberExpandDto of(Member member, boolean expandTeam) {
+        Team team = member.getTeam();
+        return new MemberExpandDto(
+                  member.getId()
+                , member.getUsername()
+                , member.getAge()
+                , teamIdOf(team)
+                , expandTeam && team != null ? TeamDto.of(team) : null
+        );
+    }
+
+    // 프록시의 id는 프록시를 초기화하지 않고 꺼낸다.
+    private static Long teamIdOf(Team team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team.getId();
+    }
+}
@@ -2,6 +2,13 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+
 // 검색 조건 : 어드민화면에서 조건을 가지고 검색하는 기능
 @Data
 public class MemberSearchCondition {
@@ -12,4 +19,50 @@ public class MemberSearchCondition {
     private String teamName;   // 팀명 검색 조건
     private int ageGoe;        // ~보다 큰나이 검색 조건
     private int ageLoe;        // ~보다 작은나이 검색 조건
+
+    // 여러 값 검색 조건 : 같은 항목 안에서는 OR, 항목끼리는 AND
+    //   예) usernames=[A, B], teamNames=[X] → (회원명 A 또는 B) 그리고 팀명 X
+    private List<String> usernames;     // 회원명 목록 (username 과 합쳐짐)
+    private List<String> teamNames;     // 팀명 목록 (teamName 과 합쳐짐)
+    private List<AgeRange> ageRanges;   // 나이 범위 목록 (ageGoe, ageLoe 와는 AND)
+
+    // OR 모드 : 항목(회원명, 팀명, 나이)끼리도 OR
+    //   예) username=A, teamName=X, matchAny=true → 회원명 A 또는 팀명 X
+    private boolean matchAny;
+
+    /**
+     * 회원명 조건 전체 (username + usernames, 빈 값 제외, 중복 제거)
+     * */
+    public List<String> usernameValues() {
+        return texts(username, usernames);
+    }
+
+    /**
+     * 팀명 조건 전체 (teamName + teamNames, 빈 값 제외, 중복 제거)
+     * */
+    public List<String> teamNameValues() {
+        return texts(teamName, teamNames);
+    }
+
+    /**
+     * 나이 범위 조건 (겹치는 범위는 합침, AgeRange.merge)
+     * */
+    public List<AgeRange> ageRangeValues() {
+        return AgeRange.merge(ageRanges);
+    }
+
+    private static List<String> texts(String value, List<String> values) {
+        Set<String> texts = new LinkedHashSet<>();
+        if (hasText(value)) {
+            texts.add(value);
+        }
+        if (values != null) {
+            for (String text : values) {
+                if (hasText(text)) {
+                    texts.add(text);
+                }
+            }
+        }
+        return new ArrayList<>(texts);
+    }
 }
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * <일괄 검색 결과 1건>
+ *     - truncated : 최대 행 수(query-governor.max-rows)를 넘어서 잘라냈는지 여부 (요청 index 마다 따로 표시)
+ * */
+@Getter
+public class MemberSearchResult {
+
+    private final List<MemberTeamDto> content;
+    private final boolean truncated;
+
+    public MemberSearchResult(List<MemberTeamDto> content, boolean truncated) {
+        this.content = content;
+        this.truncated = truncated;
+    }
+}
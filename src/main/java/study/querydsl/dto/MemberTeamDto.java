@@ -2,6 +2,8 @@ package study.querydsl.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
 
 import javax.persistence.Id;
 
@@ -23,4 +25,16 @@ public class MemberTeamDto {
         this.teamId = teamId;
         this.teamName = teamName;
     }
+
+    // 엔티티로 조회한 경우 DTO 변환 (팀이 지연로딩이면 팀명 조회 시 배치로 로딩됨)
+    public static MemberTeamDto of(Member member) {
+        Team team = member.getTeam();
+        return new MemberTeamDto(
+                  member.getId()
+                , member.getUsername()
+                , member.getAge()
+                , team == null ? null : team.getId()
+                , team == null ? null : team.getName()
+        );
+    }
 }
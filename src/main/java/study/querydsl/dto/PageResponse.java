@@ -0,0 +1,34 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * <페이지 응답>
+ *     - PageImpl 을 그대로 내보내면 pageable, sort 등 쓰지 않는 정보가 같이 나가므로 필요한 값만 담는다.
+ *     - page 는 0 부터 시작한다. (요청 파라미터는 one-indexed-parameters 설정을 따름)
+ * */
+@Getter
+public class PageResponse<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final long total;
+    private final boolean hasNext;
+
+    public PageResponse(List<T> content, int page, int size, long total, boolean hasNext) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+        this.hasNext = hasNext;
+    }
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.hasNext());
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import study.querydsl.entity.Team;
+
+@Data
+@NoArgsConstructor
+public class TeamDto {
+
+    private Long teamId;
+    private String name;
+
+    public TeamDto(Long teamId, String name) {
+        this.teamId = teamId;
+        this.name = name;
+    }
+
+    public static TeamDto of(Team team) {
+        return new TeamDto(team.getId(), team.getName());
+    }
+}
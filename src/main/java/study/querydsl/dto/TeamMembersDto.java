@@ -0,0 +1,32 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <팀 + 소속 회원 목록 DTO>
+ *     - GroupBy.transform 으로 team left join member 결과를 팀 단위로 묶어서 만든다.
+ * */
+@Data
+public class TeamMembersDto {
+
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members;
+
+    // members : 회원 id → 회원 DTO
+    //   - left join 이므로 회원이 없는 팀은 회원 id 가 null 인 행이 하나 생긴다. → 제외
+    @QueryProjection
+    public TeamMembersDto(Long teamId, String name, Map<Long, MemberDto> members) {
+        this.teamId = teamId;
+        this.name = name;
+        this.members = members.entrySet().stream()
+                .filter(entry -> entry.getKey() != null)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+}
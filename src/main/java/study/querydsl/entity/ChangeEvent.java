@@ -0,0 +1,46 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * <변경 이벤트 (트랜잭션 outbox)>
+ *     - Member, Team 변경과 같은 트랜잭션에서 저장된다. (커밋되면 이벤트도 커밋, 롤백되면 같이 롤백)
+ *     - 순번(seq) 순서가 곧 커밋 순서이다. (ChangeSequence, id 는 insert 순서라서 커밋 순서와 다를 수 있음)
+ *     - 저장은 ChangeOutbox(JDBC) 가 담당하고, 엔티티는 조회용으로만 사용한다.
+ * */
+@Entity @Getter
+@Table(indexes = @Index(name = "idx_change_event_seq", columnList = "seq"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of={"id", "seq", "entityType", "entityId", "operation"})
+public class ChangeEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name="change_event_id")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(nullable = false)
+    private String entityType;      // Member, Team
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeOperation operation;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ChangeEvent(String entityType, Long entityId, ChangeOperation operation, LocalDateTime createdAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,30 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * <구독자별 처리 위치>
+ *     - 구독자가 마지막으로 처리한 ChangeEvent 순번(seq) 를 저장한다.
+ *     - 재시작하면 이 위치 다음 이벤트부터 다시 전달한다.
+ * */
+@Entity @Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of={"subscriber", "lastSeq"})
+public class ChangeFeedOffset {
+
+    @Id
+    private String subscriber;
+
+    private Long lastSeq;
+
+    public ChangeFeedOffset(String subscriber, Long lastSeq) {
+        this.subscriber = subscriber;
+        this.lastSeq = lastSeq;
+    }
+
+    public void moveTo(Long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
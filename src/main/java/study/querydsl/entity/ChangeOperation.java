@@ -0,0 +1,8 @@
+package study.querydsl.entity;
+
+/**
+ * <변경 종류>
+ * */
+public enum ChangeOperation {
+    INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,29 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * <변경 이벤트 순번>
+ *     - 변경 이벤트를 저장하는 트랜잭션은 이 행을 잠그고(update) 순번(ChangeEvent.seq)을 받는다.
+ *     - 잠금은 커밋(롤백)까지 유지되므로, 순번이 큰 이벤트는 항상 작은 이벤트보다 늦게 커밋된다.
+ *       : 롤백되면 받은 순번도 되돌아가므로 커밋된 순번에는 빈 구간이 없다.
+ *     - 저장, 조회는 ChangeOutbox(JDBC) 가 담당한다.
+ * */
+@Entity @Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of={"name", "lastSeq"})
+public class ChangeSequence {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastSeq;
+
+    public ChangeSequence(String name, Long lastSeq) {
+        this.name = name;
+        this.lastSeq = lastSeq;
+    }
+}
@@ -1,9 +1,16 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+
 import javax.persistence.*;
 
 @Entity @Getter @Setter
+@Table(indexes = {                                              // 검색 조건 / 필터(MemberFilter)용 인덱스
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_id", columnList = "team_id")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id", "username", "age"})
 public class Member {
@@ -37,9 +44,25 @@ public class Member {
     }
 
     // 팀이 바뀌면, 해당 팀 회원 정보도 바꿔준다.
+    //   - 이미 로딩된 Team.members 컬렉션만 고친다. (로딩되지 않은 컬렉션은 건드리지 않음)
+    //     : 회원 1명을 옮기려고 10만명 팀의 회원 목록 전체를 로딩하지 않기 위해서...
+    //     : 로딩되지 않은 컬렉션은 나중에 로딩할 때 DB 값(team_id)으로 채워진다.
+    //   - 바이트코드 향상(연관관계 관리)을 켜면 this.team 대입 시 이미 추가되므로 중복 추가하지 않는다.
+    //   - 여러 회원의 팀을 한번에 바꿀 때는 MemberJpaRepository.reassignTeam() 벌크 업데이트를 사용할 것.
     public void changeTeam(Team team) {
+        if (isMembersLoaded(this.team)) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (isMembersLoaded(team) && !team.getMembers().contains(this)) {
+            team.getMembers().add(this);
+        }
+    }
+
+    private static boolean isMembersLoaded(Team team) {
+        return team != null
+                && Hibernate.isInitialized(team)
+                && Hibernate.isInitialized(team.getMembers());
     }
 
 
@@ -1,6 +1,9 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import study.querydsl.repository.TeamIdCacheListener;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -9,6 +12,7 @@ import java.util.List;
 @Entity @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id", "name"})
+@EntityListeners(TeamIdCacheListener.class)   // 팀명 → 팀 ID 캐시 동기화
 public class Team {
 
     @Id @GeneratedValue
@@ -16,7 +20,9 @@ public class Team {
     private Long id;
     private String name;
 
+    // EXTRA : size(), contains() 등은 컬렉션 전체를 로딩하지 않고 SQL 로 처리한다.
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
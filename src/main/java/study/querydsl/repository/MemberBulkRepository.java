@@ -0,0 +1,225 @@
+package study.querydsl.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Repository;
+import study.querydsl.change.ChangeOutbox;
+import study.querydsl.change.TableVersions;
+import study.querydsl.entity.ChangeOperation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * <대량 처리용 리포지토리 (StatelessSession)>
+ *     - 일반 EntityManager 는 조회/저장한 엔티티를 모두 영속성 컨텍스트(1차 캐시)에 보관하므로
+ *       대량 처리 시 메모리가 계속 늘어난다.
+ *     - StatelessSession 은 영속성 컨텍스트, 변경 감지, 지연 로딩, 엔티티 리스너가 없으므로
+ *       처리 건수와 관계없이 메모리 사용량이 일정하다.
+ *
+ *     - 조회 : id 기준 keyset 방식으로 chunkSize 만큼씩 조회 (offset 없음, 커서를 오래 잡지 않음)
+ *     - 저장/수정 : chunkSize 건마다 커밋 (변경 이벤트(outbox)도 같은 트랜잭션으로 저장)
+ *       : 엔티티 리스너(TeamIdCacheListener)가 없으므로, 팀을 저장한 chunk 는 커밋 후 TeamIdCache 에서 직접 뺀다.
+ *
+ *     - 주의 : 연관관계는 지연 로딩이 안되므로 필요한 연관관계는 fetch join 으로 조회한다.
+ *             Member 생성자에 팀을 넘기면 Team.members 에 계속 추가되므로,
+ *             대량 저장 시에는 setTeam() 으로 팀만 지정한다.
+ * */
+@Repository
+public class MemberBulkRepository {
+
+    private final SessionFactory sessionFactory;
+    private final TableVersions tableVersions;
+    private final TeamIdCache teamIdCache;
+
+    public MemberBulkRepository(EntityManagerFactory entityManagerFactory, TableVersions tableVersions,
+                                TeamIdCache teamIdCache) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.tableVersions = tableVersions;
+        this.teamIdCache = teamIdCache;
+    }
+
+    /**
+     * 회원 스트리밍 조회 (팀 fetch join)
+     *     - 반환값 : 처리 건수
+     * */
+    public long streamMembers(int chunkSize, Consumer<Member> consumer) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            long count = 0;
+            Long lastId = 0L;
+            while (true) {
+                List<Member> chunk = nextChunk(session, null, lastId, chunkSize);
+                if (chunk.isEmpty()) {
+                    return count;
+                }
+                for (Member member : chunk) {
+                    consumer.accept(member);
+                }
+                count += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * 엔티티 대량 저장 (Member, Team)
+     *     - entities 는 Iterator 로 받으므로 전체 목록을 메모리에 만들 필요가 없다.
+     *     - 반환값 : 저장 건수
+     * */
+    public long insert(Iterator<?> entities, int chunkSize) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        Transaction tx = session.beginTransaction();
+        try {
+            long count = 0;
+            Map<Class<?>, List<Long>> inserted = new LinkedHashMap<>();
+            Set<String> teamNames = new HashSet<>();
+            while (entities.hasNext()) {
+                Object entity = entities.next();
+                Serializable id = session.insert(entity);
+                inserted.computeIfAbsent(Hibernate.getClass(entity), type -> new ArrayList<>()).add((Long) id);
+                if (entity instanceof Team) {
+                    teamNames.add(((Team) entity).getName());
+                }
+                if (++count % chunkSize == 0) {
+                    commit(tx, recordChanges(session, inserted, ChangeOperation.INSERT));
+                    evictTeams(teamNames);
+                    tx = session.beginTransaction();
+                }
+            }
+            commit(tx, recordChanges(session, inserted, ChangeOperation.INSERT));
+            evictTeams(teamNames);
+            return count;
+        } catch (RuntimeException e) {
+            rollback(tx);
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * 회원 대량 수정
+     *     - mutator 가 true 를 반환한 회원만 update 한다.
+     *     - chunk 단위로 조회 → 수정 → 커밋
+     *     - 반환값 : 수정 건수
+     * */
+    public long updateMembers(int chunkSize, Predicate<Member> mutator) {
+        return updateMembers(null, chunkSize, mutator);
+    }
+
+    /**
+     * 팀 회원 대량 수정
+     *     - 팀명 조건은 keyset 조회 쿼리에 넣는다. (다른 팀 회원은 읽지 않음)
+     *     - teamName 이 null 이면 전체 회원
+     *     - 반환값 : 수정 건수
+     * */
+    public long updateMembers(String teamName, int chunkSize, Predicate<Member> mutator) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        Transaction tx = null;
+        try {
+            long count = 0;
+            Long lastId = 0L;
+            while (true) {
+                tx = session.beginTransaction();
+                List<Member> chunk = nextChunk(session, teamName, lastId, chunkSize);
+                List<Long> updated = new ArrayList<>();
+                for (Member member : chunk) {
+                    if (mutator.test(member)) {
+                        session.update(member);
+                        updated.add(member.getId());
+                    }
+                }
+                count += updated.size();
+                commit(tx, recordChanges(session, Map.<Class<?>, List<Long>>of(Member.class, updated), ChangeOperation.UPDATE));
+
+                if (chunk.isEmpty()) {
+                    return count;
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } catch (RuntimeException e) {
+            rollback(tx);
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    // teamName 이 있으면 팀 회원만 (inner join), 없으면 전체 회원 (left join)
+    private List<Member> nextChunk(StatelessSession session, String teamName, Long lastId, int chunkSize) {
+        if (teamName == null) {
+            return session.createQuery(
+                            "select m from Member m left join fetch m.team" +
+                            " where m.id > :lastId order by m.id", Member.class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+        }
+        return session.createQuery(
+                        "select m from Member m join fetch m.team t" +
+                        " where t.name = :teamName and m.id > :lastId order by m.id", Member.class)
+                .setParameter("teamName", teamName)
+                .setParameter("lastId", lastId)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
+    // 커밋한 팀명을 캐시에서 뺀다. (커밋 전에 읽은 예전 목록은 세대가 바뀌어 캐시에 남지 않음)
+    private void evictTeams(Set<String> teamNames) {
+        teamNames.forEach(teamIdCache::evict);
+        teamNames.clear();
+    }
+
+    /**
+     * 변경 이벤트(outbox) 저장
+     *     - StatelessSession 은 엔티티 이벤트가 없으므로 커밋 직전에 같은 커넥션으로 직접 저장한다.
+     *     - 반환값 : 바뀐 테이블 (커밋 후 버전을 올릴 대상)
+     * */
+    private Set<String> recordChanges(StatelessSession session, Map<Class<?>, List<Long>> changes, ChangeOperation operation) {
+        SharedSessionContractImplementor sessionImplementor = (SharedSessionContractImplementor) session;
+        Set<String> tables = new HashSet<>();
+        try {
+            for (Map.Entry<Class<?>, List<Long>> change : changes.entrySet()) {
+                if (!change.getValue().isEmpty()) {
+                    ChangeOutbox.insert(sessionImplementor.connection(),
+                            change.getKey().getSimpleName(), change.getValue(), operation);
+                    change.getValue().clear();
+                    tables.add(TableVersions.tableOf(change.getKey()));
+                }
+            }
+            return tables;
+        } catch (SQLException e) {
+            throw sessionImplementor.getFactory().getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "change outbox insert failed");
+        }
+    }
+
+    private void commit(Transaction tx, Set<String> changedTables) {
+        tx.commit();
+        changedTables.forEach(tableVersions::bump);
+    }
+
+    private void rollback(Transaction tx) {
+        if (tx != null && tx.isActive()) {
+            tx.rollback();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <회원 필터 허용 목록> (@QuerydslPredicate 웹 바인딩)
+ *     - 바인딩 : MemberRepository.customize() 참고
+ *         username : 앞부분 일치 (username like 'abc%', 인덱스 범위 조회)
+ *         age      : 1개면 =, 2개면 범위 (age=20&age=30 → between 20 and 30)
+ *         team.id  : 1개면 =, 여러개면 IN
+ *     - 바인딩 전에 요청 파라미터를 먼저 검증한다. (인덱스를 못 쓰는 검색이 DB 까지 가지 않도록)
+ *         1. 허용하지 않은 파라미터는 거부 (page, size, sort 제외)
+ *         2. 조건이 하나도 없으면 거부 (전체 조회 + 전체 건수)
+ *         3. 회원명은 MIN_PREFIX_LENGTH 글자 이상, 나이는 숫자 1~2개, 팀 ID 는 숫자 MAX_TEAM_IDS 개 이하
+ *         4. 정렬은 인덱스가 있는 속성만 (id, username, age)
+ *     - 위반하면 IllegalArgumentException
+ * */
+public final class MemberFilter {
+
+    public static final String USERNAME = "username";
+    public static final String AGE = "age";
+    public static final String TEAM_ID = "team.id";
+
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_TEAM_IDS = 100;
+
+    private static final Set<String> PAGE_PARAMETERS = Set.of("page", "size", "sort");
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", USERNAME, AGE);
+
+    private MemberFilter() {
+    }
+
+    public static void validate(MultiValueMap<String, String> parameters, Sort sort) {
+        int filters = 0;
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            String name = parameter.getKey();
+            List<String> values = parameter.getValue();
+            if (PAGE_PARAMETERS.contains(name)) {
+                continue;
+            }
+            switch (name) {
+                case USERNAME:
+                    validateUsername(values);
+                    break;
+                case AGE:
+                    validateNumbers(AGE, values, 2);
+                    break;
+                case TEAM_ID:
+                    validateNumbers(TEAM_ID, values, MAX_TEAM_IDS);
+                    break;
+                default:
+                    throw new IllegalArgumentException("검색할 수 없는 파라미터입니다. parameter=" + name);
+            }
+            filters++;
+        }
+        if (filters == 0) {
+            throw new IllegalArgumentException("검색 조건(" + USERNAME + ", " + AGE + ", " + TEAM_ID + ")이 하나 이상 필요합니다.");
+        }
+        for (Sort.Order order : sort) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다. sort=" + order.getProperty());
+            }
+        }
+    }
+
+    private static void validateUsername(List<String> values) {
+        if (values.size() != 1) {
+            throw new IllegalArgumentException(USERNAME + " 는 1개만 지정할 수 있습니다.");
+        }
+        String prefix = values.get(0);
+        if (prefix == null || prefix.trim().length() < MIN_PREFIX_LENGTH) {
+            throw new IllegalArgumentException(USERNAME + " 는 " + MIN_PREFIX_LENGTH + "글자 이상이어야 합니다.");
+        }
+    }
+
+    private static void validateNumbers(String name, List<String> values, int max) {
+        if (values.isEmpty() || values.size() > max) {
+            throw new IllegalArgumentException(name + " 는 1 ~ " + max + "개까지 지정할 수 있습니다.");
+        }
+        for (String value : values) {
+            try {
+                Long.parseLong(value.trim());
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException(name + " 는 숫자여야 합니다. value=" + value);
+            }
+        }
+    }
+}
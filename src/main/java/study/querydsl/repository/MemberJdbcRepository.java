@@ -0,0 +1,182 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.QueryGovernor;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <회원 JDBC 리포지토리>
+ *     - 엔티티/DTO 를 만들지 않고 ResultSet 을 그대로 넘겨주는 조회용 리포지토리 (대용량 응답 스트리밍 등)
+ *     - 조회 컬럼 순서 : COLUMN_* 상수
+ *     - 정렬은 허용한 속성(SORT_COLUMNS)만 가능하다. (SQL 인젝션 방지)
+ *     - 쿼리 타임아웃은 QueryGovernor 가 문장마다 적용한다. (엔드포인트별 @QueryLimit)
+ * */
+@Repository
+public class MemberJdbcRepository {
+
+    public static final int COLUMN_MEMBER_ID = 1;
+    public static final int COLUMN_USERNAME = 2;
+    public static final int COLUMN_AGE = 3;
+    public static final int COLUMN_TEAM_ID = 4;
+    public static final int COLUMN_TEAM_NAME = 5;
+
+    public static final String SELECT_MEMBER_TEAM =
+            "select m.member_id, m.username, m.age, t.team_id, t.name" +
+            " from member m left join team t on t.team_id = m.team_id";
+
+    // 한 행 -> MemberTeamDto (DTO 목록이 필요한 경로용)
+    public static final RowMapper<MemberTeamDto> MEMBER_TEAM_ROW_MAPPER = (rs, rowNum) -> new MemberTeamDto(
+            rs.getLong(COLUMN_MEMBER_ID),
+            rs.getString(COLUMN_USERNAME),
+            rs.getInt(COLUMN_AGE),
+            rs.getObject(COLUMN_TEAM_ID, Long.class),
+            rs.getString(COLUMN_TEAM_NAME));
+
+    // 정렬 가능 속성 -> 컬럼 (메모리 정렬용 값 포함)
+    private static final Map<String, SortColumn> SORT_COLUMNS = Map.of(
+            "id", new SortColumn("m.member_id", MemberTeamDto::getMemberId),
+            "memberId", new SortColumn("m.member_id", MemberTeamDto::getMemberId),
+            "username", new SortColumn("m.username", MemberTeamDto::getUsername),
+            "age", new SortColumn("m.age", MemberTeamDto::getAge),
+            "teamId", new SortColumn("m.team_id", MemberTeamDto::getTeamId),
+            "teamName", new SortColumn("t.name", MemberTeamDto::getTeamName));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TeamIdCache teamIdCache;
+    private final QueryGovernor queryGovernor;
+
+    public MemberJdbcRepository(DataSource dataSource, TeamIdCache teamIdCache, QueryGovernor queryGovernor) {
+        this.jdbcTemplate = queryGovernor.jdbcTemplate(dataSource);
+        this.teamIdCache = teamIdCache;
+        this.queryGovernor = queryGovernor;
+    }
+
+    /**
+     * 검색 조건 → where 절
+     * */
+    public MemberSearchSql where(MemberSearchCondition condition) {
+        return MemberSearchSql.of(condition, teamIdCache);
+    }
+
+    /**
+     * 정렬 → order by 절
+     *     - 허용하지 않은 속성이면 IllegalArgumentException
+     *     - 같은 값이 있어도 순서가 바뀌지 않도록 마지막에 회원 id 를 붙인다.
+     * */
+    public static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(sortColumn(order).column + (order.isAscending() ? " asc" : " desc"));
+        }
+        orders.add("m.member_id asc");
+        return " order by " + String.join(", ", orders);
+    }
+
+    /**
+     * 정렬 → 메모리 정렬 (orderBy() 와 같은 순서)
+     *     - 여러 곳에서 정렬해서 가져온 결과를 합칠 때 사용한다. (샤드 결과 병합 등)
+     *     - null 은 H2 기본값과 같이 오름차순에서 앞, 내림차순에서 뒤
+     * */
+    public static Comparator<MemberTeamDto> comparator(Sort sort) {
+        Comparator<MemberTeamDto> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<MemberTeamDto> byColumn = sortColumn(order).comparator;
+            comparator = comparator.thenComparing(order.isAscending() ? byColumn : byColumn.reversed());
+        }
+        return comparator.thenComparing(MemberTeamDto::getMemberId);
+    }
+
+    private static SortColumn sortColumn(Sort.Order order) {
+        SortColumn column = SORT_COLUMNS.get(order.getProperty());
+        if (column == null) {
+            throw new IllegalArgumentException("정렬할 수 없는 속성입니다. sort=" + order.getProperty());
+        }
+        return column;
+    }
+
+    /**
+     * 한 페이지 조회 (회원 + 팀)
+     *     - 행마다 rowHandler 를 호출한다. (목록을 만들지 않음)
+     *     - 다음 페이지 확인을 위해 1건 더 조회하고, 그 행은 넘기지 않는다.
+     *     - 반환값 : 다음 페이지 존재 여부
+     * */
+    public boolean streamPage(MemberSearchSql where, String orderBy, Pageable pageable, RowCallbackHandler rowHandler) {
+        int pageSize = pageable.getPageSize();
+        int[] rows = {0};
+        jdbcTemplate.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy + " limit ? offset ?",
+                rs -> {
+                    if (++rows[0] <= pageSize) {
+                        rowHandler.processRow(rs);
+                    }
+                },
+                where.argsWith(pageSize + 1, pageable.getOffset()));
+        return rows[0] > pageSize;
+    }
+
+    /**
+     * 회원 + 팀 목록 조회 (DTO, 회원 id 순서)
+     *     - Querydsl(JPQL)로 만들 수 없는 조건(OR 모드의 UNION ALL)을 처리한다.
+     *     - 최대 행 수(QueryGovernor)를 넘으면 잘라낸다.
+     * */
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchSql where = where(condition);
+        List<MemberTeamDto> rows = jdbcTemplate.query(
+                SELECT_MEMBER_TEAM + where.getWhere() + orderBy(Sort.unsorted()) + " limit ?",
+                MEMBER_TEAM_ROW_MAPPER, where.argsWith(queryGovernor.maxRows() + 1));
+        return queryGovernor.cap(rows);
+    }
+
+    /**
+     * 한 페이지 조회 (DTO)
+     *     - countAlways : false 면 마지막 페이지 등에서 건수 쿼리를 생략한다. (PageableExecutionUtils)
+     *     - 페이지 크기, offset 제한은 QueryGovernor 가 먼저 검사한다.
+     * */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, boolean countAlways) {
+        queryGovernor.checkPage(pageable);
+        MemberSearchSql where = where(condition);
+        List<MemberTeamDto> content = pageable.isUnpaged()
+                ? jdbcTemplate.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy(pageable.getSort()),
+                        MEMBER_TEAM_ROW_MAPPER, where.argsWith())
+                : jdbcTemplate.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy(pageable.getSort()) + " limit ? offset ?",
+                        MEMBER_TEAM_ROW_MAPPER, where.argsWith(pageable.getPageSize(), pageable.getOffset()));
+        return countAlways
+                ? new PageImpl<>(content, pageable, count(where))
+                : PageableExecutionUtils.getPage(content, pageable, () -> count(where));
+    }
+
+    /**
+     * 건수 조회 (팀 조인 없음)
+     * */
+    public long count(MemberSearchSql where) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from member m" + where.getWhere(),
+                Long.class, where.argsWith());
+        return count == null ? 0L : count;
+    }
+
+    private static final class SortColumn {
+
+        private final String column;
+        private final Comparator<MemberTeamDto> comparator;
+
+        private <T extends Comparable<? super T>> SortColumn(String column, Function<MemberTeamDto, T> value) {
+            this.column = column;
+            this.comparator = Comparator.comparing(value, Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+    }
+}
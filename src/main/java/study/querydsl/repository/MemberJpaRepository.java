@@ -2,31 +2,78 @@ package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.change.ChangeOutbox;
+import study.querydsl.dto.AgeRange;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.ChangeOperation;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InClauseChunks;
+import study.querydsl.repository.support.QueryGovernor;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-import static org.springframework.util.StringUtils.hasText;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 
 @Repository // DAO와 유사한 개념
+@Transactional(readOnly = true)   // 조회 전용 : 스냅샷 생략, flush 생략(FlushMode.MANUAL), 읽기 전용 커넥션
 public class MemberJpaRepository {
 
+    // multi-get 한번의 IN 쿼리에 넣을 최대 id 개수
+    private static final int MULTI_GET_CHUNK_SIZE = 100;
+    // 팀 일괄 변경 한번의 UPDATE 에 넣을 최대 id 개수
+    private static final int REASSIGN_CHUNK_SIZE = 1000;
+    // 여러 값 검색 조건 한번의 IN 에 넣을 최대 개수
+    private static final int SEARCH_IN_CHUNK_SIZE = 1000;
+
     // 순수 JPA는 EntityManager가 필요함.
     private final EntityManager em;
 
     // Query DSL을 사용하기 위해서 JPAQueryFactory가 필요함.
     private final JPAQueryFactory queryFactory;
 
+    // 팀명 조건을 팀 ID 조건으로 바꾸기 위한 캐시
+    private final TeamIdCache teamIdCache;
+
+    // 벌크 연산 변경 이벤트 저장 (outbox)
+    private final ChangeOutbox changeOutbox;
+
+    // OR 모드(matchAny) 검색 : UNION ALL 은 JPQL 로 만들 수 없으므로 JDBC 로 처리
+    private final MemberJdbcRepository memberJdbcRepository;
+
+    // 검색 쿼리 타임아웃, 최대 행 수
+    private final QueryGovernor queryGovernor;
+
+    // querydsl-sql 경로 (JPQL 을 거치지 않는 검색)
+    private final MemberSqlRepository memberSqlRepository;
+
+    // querydsl-sql 로 실행할 검색 메소드 이름 (member.search.sql-fast-path : search, searchByBuilder, searchInTeams)
+    private final Set<String> sqlFastPath;
+
     // 생성자가 필요함.
 //    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory) {
 //        this.em = em;
@@ -36,19 +83,98 @@ public class MemberJpaRepository {
      *  EntityManager, JPAQueryFactory 초기화 생성자.
      *
      * */
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, TeamIdCache teamIdCache, ChangeOutbox changeOutbox,
+                               MemberJdbcRepository memberJdbcRepository, QueryGovernor queryGovernor,
+                               MemberSqlRepository memberSqlRepository,
+                               @Value("${member.search.sql-fast-path:}") Set<String> sqlFastPath) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.teamIdCache = teamIdCache;
+        this.changeOutbox = changeOutbox;
+        this.memberJdbcRepository = memberJdbcRepository;
+        this.queryGovernor = queryGovernor;
+        this.memberSqlRepository = memberSqlRepository;
+        this.sqlFastPath = sqlFastPath;
     }
 
     /**
      * 1. 저장하기.
      *      : em.save()
      * */
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
 
+    /**
+     * 1.1 회원들의 팀을 한번에 바꾸기. (벌크 업데이트)
+     *      : update member set team_id = ? where member_id in (...)
+     *          - 회원, 팀 엔티티를 로딩하지 않으므로 Team.members 컬렉션도 로딩되지 않는다.
+     *          - 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 실행 전 flush / 실행 후 바뀐 회원만 다시 읽는다.
+     *            (영속성 컨텍스트에 있는 회원과 로딩된 Team.members 만 refresh, 호출한 쪽이 가진 다른 엔티티는 그대로)
+     *          - 2차 캐시는 Hibernate 가 벌크 연산 후 자동으로 무효화한다.
+     *          - 엔티티 이벤트가 없으므로 변경 이벤트(outbox)를 직접 저장한다.
+     *            (조각마다 있는 회원 id 를 먼저 조회해서, 없는 id 는 이벤트를 남기지 않는다.)
+     *          - 반환값 : 변경된 회원 수
+     * */
+    @Transactional
+    public long reassignTeam(Collection<Long> memberIds, Long teamId) {
+        Team newTeam = em.find(Team.class, teamId);
+        if (newTeam == null) {
+            throw new IllegalArgumentException("팀이 없습니다. teamId=" + teamId);
+        }
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(memberIds));
+        distinctIds.remove(null);
+
+        em.flush();
+        long updated = 0;
+        List<Long> updatedIds = new ArrayList<>();
+        for (List<Long> chunk : InClauseChunks.padded(distinctIds, REASSIGN_CHUNK_SIZE)) {
+            // 변경 이벤트는 실제로 있는 회원만 저장한다.
+            List<Long> existingIds = queryFactory
+                    .select(member.id)
+                    .from(member)
+                    .where(member.id.in(chunk))
+                    .fetch();
+            if (existingIds.isEmpty()) {
+                continue;
+            }
+            updated += queryFactory
+                    .update(member)
+                    .set(member.team, newTeam)
+                    .where(member.id.in(chunk))
+                    .execute();
+            updatedIds.addAll(existingIds);
+        }
+        changeOutbox.record(Member.class, updatedIds, ChangeOperation.UPDATE);   // 같은 트랜잭션
+        refreshManaged(updatedIds, newTeam);
+        return updated;
+    }
+
+    // 벌크 업데이트로 바뀐 회원 중 영속성 컨텍스트에 있는 회원과, 그 회원이 들어있던(들어갈) 로딩된 팀 회원 목록을 다시 읽는다.
+    private void refreshManaged(List<Long> memberIds, Team newTeam) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        Set<Team> teams = new LinkedHashSet<>();
+        teams.add(newTeam);
+        for (Long memberId : memberIds) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(memberId, persister));
+            if (managed != null) {
+                Member managedMember = (Member) managed;
+                if (managedMember.getTeam() != null) {
+                    teams.add(managedMember.getTeam());
+                }
+                em.refresh(managedMember);
+            }
+        }
+        for (Team loadedTeam : teams) {
+            if (Hibernate.isInitialized(loadedTeam) && Hibernate.isInitialized(loadedTeam.getMembers())) {
+                em.refresh(loadedTeam);
+            }
+        }
+    }
+
     /**
      * 2. PK값으로 조회하기.
      *      : em.find()
@@ -58,6 +184,42 @@ public class MemberJpaRepository {
         return Optional.ofNullable(findMember);
     }
 
+    /**
+     * 2.1 PK값 목록으로 한번에 조회하기. (multi-get)
+     *      : Hibernate multiLoad
+     *          - 1차 캐시(영속성 컨텍스트), 2차 캐시(설정 시)에 있는 회원은 DB 조회 생략
+     *          - 나머지는 IN 절로 묶어서 조회 (MULTI_GET_CHUNK_SIZE 단위, 파라미터 패딩)
+     *          - 요청한 id 순서대로 반환 (중복 id는 한번만, 없는 id는 제외)
+     * */
+    public List<Member> findAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.remove(null);
+
+        Map<Long, Member> loaded = new HashMap<>();
+        for (List<Long> chunk : InClauseChunks.padded(distinctIds, MULTI_GET_CHUNK_SIZE)) {
+            List<Member> members = em.unwrap(Session.class)
+                    .byMultipleIds(Member.class)
+                    .enableSessionCheck(true)          // 1차 캐시 확인
+                    .with(CacheMode.NORMAL)            // 2차 캐시 확인
+                    .withBatchSize(chunk.size())       // 한 조각을 한번의 IN 쿼리로
+                    .multiLoad(chunk);
+            for (Member member : members) {
+                if (member != null) {
+                    loaded.put(member.getId(), member);
+                }
+            }
+        }
+
+        List<Member> result = new ArrayList<>(loaded.size());
+        for (Long id : distinctIds) {
+            Member member = loaded.get(id);
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
     /**
      * 3. 전체값으로 조회하기.
      *      : em.createQuery()    // 쿼리 String
@@ -65,11 +227,13 @@ public class MemberJpaRepository {
      * */
     public List<Member> findAll() {
         return em.createQuery("select m from Member m ", Member.class)
+                .setHint(HINT_READONLY, true)      // 읽기 전용 엔티티 (스냅샷 생략)
                 .getResultList();
     }
     public List<Member> findAll_Querydsl() {
         return queryFactory
                 .selectFrom(member)
+                .setHint(HINT_READONLY, true)
                 .fetch();
     }
 
@@ -82,11 +246,13 @@ public class MemberJpaRepository {
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username",username)
+                .setHint(HINT_READONLY, true)
                 .getResultList();
     }
     public List<Member> findByUsername_Querydsl(String username) {
         return queryFactory.selectFrom(member)
                 .where(member.username.eq(username))
+                .setHint(HINT_READONLY, true)
                 .fetch();
     }
 
@@ -101,6 +267,13 @@ public class MemberJpaRepository {
      * */
 
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        if (condition.isMatchAny()) {
+            flushBeforeSql();
+            return memberJdbcRepository.search(condition);
+        }
+        if (useSqlFastPath("searchByBuilder")) {
+            return memberSqlRepository.search(condition);
+        }
 
         // 조건 Builder 제작
         BooleanBuilder builder = new BooleanBuilder();
@@ -108,11 +281,14 @@ public class MemberJpaRepository {
         // Ctrl + Shift + Enter (문장 자동완성)
         // Alt + Enter 후 Static import 로 줄여 준다.
         //if (StringUtils.hasText(condition.getUsername())) {
-        if (hasText(condition.getUsername())) {
-            builder.and(member.username.eq(condition.getUsername()));
+        // 회원명, 팀명은 목록(usernames, teamNames)과 합친 값 (1개면 =, 여러개면 IN)
+        List<String> usernames = condition.usernameValues();
+        if (!usernames.isEmpty()) {
+            builder.and(usernames.size() == 1 ? member.username.eq(usernames.get(0)) : member.username.in(usernames));
         }
-        if (hasText(condition.getTeamName())) {
-            builder.and(team.name.eq(condition.getTeamName()));
+        List<String> teamNames = condition.teamNameValues();
+        if (!teamNames.isEmpty()) {
+            builder.and(teamNames.size() == 1 ? team.name.eq(teamNames.get(0)) : team.name.in(teamNames));
         }
         if (condition.getAgeGoe() > 0) {
             builder.and(member.age.goe(condition.getAgeGoe()));
@@ -120,8 +296,9 @@ public class MemberJpaRepository {
         if (condition.getAgeLoe() > 0) {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
+        builder.and(ageIn(condition.ageRangeValues()));       // 나이 범위 목록 (null 이면 무시된다.)
 
-        return queryFactory
+        return queryGovernor.fetchCapped(queryFactory       //  최대 행 수를 넘으면 잘라낸다. (QueryGovernor)
                 .select(new QMemberTeamDto(
                           member.id                      //  alias를 만들어 주지 않아도 된다.
                         //member.id.as("memberId")       //  alias를 줘도 된다.
@@ -134,8 +311,7 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)                       //  조건을 빌더로 만들어서 적용한다.
-                .fetch();
+                .where(builder));                     //  조건을 빌더로 만들어서 적용한다.
     }
 
     /**
@@ -150,7 +326,14 @@ public class MemberJpaRepository {
      *
      * */
     public List<MemberTeamDto> search (MemberSearchCondition condition) {
-        return queryFactory
+        if (condition.isMatchAny()) {
+            flushBeforeSql();
+            return memberJdbcRepository.search(condition);
+        }
+        if (useSqlFastPath("search")) {
+            return memberSqlRepository.search(condition);
+        }
+        return queryGovernor.fetchCapped(queryFactory       //  최대 행 수를 넘으면 잘라낸다. (QueryGovernor)
                 .select(new QMemberTeamDto(
                           member.id
                         , member.username
@@ -161,22 +344,86 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(   null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
+                ));
+    }
+
+    /**
+     *   <여러 팀 한번에 조회>
+     *       - 팀명만 다른 검색 조건 여러개를 쿼리 1번으로 처리하기 위한 조회 (condition 의 팀명/팀명 목록은 무시)
+     *       - 결과의 teamName 으로 조건별로 나눠서 사용한다.
+     *       - 여러 조건의 결과가 섞여 있으므로 여기서는 자르지 않고, 팀 수 x (최대 행 수 + 1) 건까지만 조회한다.
+     *         (팀마다 최대 행 수로 자르는 것은 나눈 후에 한다 : MemberSearchBatchService)
+     * */
+    public List<MemberTeamDto> searchInTeams(MemberSearchCondition condition, Collection<String> teamNames) {
+        if (useSqlFastPath("searchInTeams")) {
+            return memberSqlRepository.searchInTeams(condition, teamNames);
+        }
+        return queryGovernor.withTimeout(queryFactory
+                .select(new QMemberTeamDto(
+                          member.id
+                        , member.username
+                        , member.age
+                        , team.id
+                        , team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(   usernameIn(condition.usernameValues())
+                        , teamNameIn(teamNames)
+                        , ageGoe(condition.getAgeGoe())
+                        , ageLoe(condition.getAgeLoe())
+                        , ageIn(condition.ageRangeValues())
                 )
+                .limit(teamNames.size() * (queryGovernor.maxRows() + 1L)))
                 .fetch();
     }
 
+    /**
+     *   <querydsl-sql 경로 사용 여부>
+     *       - 사용하면 먼저 flush 한다. (flushBeforeSql)
+     *
+     * */
+    private boolean useSqlFastPath(String method) {
+        if (!sqlFastPath.contains(method)) {
+            return false;
+        }
+        flushBeforeSql();
+        return true;
+    }
+
+    /**
+     *   <JDBC / querydsl-sql 경로 실행 전 flush>
+     *       - JPQL 쿼리는 실행 전에 자동 flush 되지만, SQL 경로(OR 모드 JDBC, querydsl-sql)는 영속성 컨텍스트를 거치지 않으므로
+     *         쓰기 트랜잭션 안이면 직접 flush 해서 같은 결과가 나오게 한다.
+     *
+     * */
+    private void flushBeforeSql() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+
     // 참고 : where 절에 파라미터 방식을 사용하면 조건 재사용 가능
     // 재사용을 위해서 Predicate -> BooleanExpression 변경해서 사용할 것.
     // private Predicate usernameEq(String username) {
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    // 회원명이 여러개면 IN 조건 (1개면 =, 많으면 SEARCH_IN_CHUNK_SIZE 단위 IN 을 OR 로 묶음)
+    private BooleanExpression usernameIn(List<String> usernames) {
+        return InClauseChunks.in(member.username, usernames, SEARCH_IN_CHUNK_SIZE);
     }
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 팀명 조건은 캐시로 팀 ID를 찾아서 member.team_id 조건으로 바꾼다. (team 조인이 필요 없음)
+    private BooleanExpression teamNameIn(Collection<String> teamNames) {
+        if (teamNames.isEmpty()) {
+            return null;
+        }
+        List<Long> teamIds = teamIdCache.findIdsByNames(teamNames);
+        return teamIds.isEmpty()
+                ? member.team.id.in(teamIds)      // 없는 팀 : 결과 없음 (1=2)
+                : InClauseChunks.in(member.team.id, teamIds, SEARCH_IN_CHUNK_SIZE);
     }
     private BooleanExpression ageGoe(int ageGoe) {
         return ageGoe > 0 ? member.age.goe(ageGoe) : null ;
@@ -184,5 +431,19 @@ public class MemberJpaRepository {
     private BooleanExpression ageLoe(int ageLoe) {
         return ageLoe > 0 ? member.age.loe(ageLoe) : null ;
     }
+    // 나이 범위 여러개는 범위 조건을 OR 로 묶는다. (겹치는 범위는 미리 합쳐져 있음)
+    private BooleanExpression ageIn(List<AgeRange> ageRanges) {
+        BooleanExpression any = null;
+        for (AgeRange range : ageRanges) {
+            if (range.matchesNothing()) {
+                return Expressions.booleanTemplate("1 = 0");     // 빈 범위만 있으면 결과 없음
+            }
+            BooleanExpression in = !range.hasLoe() ? member.age.goe(range.getGoe())
+                    : range.hasGoe() ? member.age.between(range.getGoe(), range.getLoe())
+                    : member.age.loe(range.getLoe());
+            any = any == null ? in : any.or(in);
+        }
+        return any;
+    }
 
 }
@@ -1,16 +1,51 @@
 package study.querydsl.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
 
+import javax.persistence.QueryHint;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@Transactional(readOnly = true)   // 쿼리 메소드도 조회 전용 (save 등 쓰기 메소드는 SimpleJpaRepository 설정을 따름)
 public interface MemberRepository extends JpaRepository<Member, Long>
         , MemberRepositoryCustom              // 사용자정의 지원
         , QuerydslPredicateExecutor<Member>   // 인터페이스 지원
+        , QuerydslBinderCustomizer<QMember>   // @QuerydslPredicate 웹 바인딩 허용 목록
 {
 
+    /**
+     *   <@QuerydslPredicate 웹 바인딩>
+     *       - 인덱스가 있는 속성만 바인딩한다. (나머지 파라미터는 무시, 검증은 MemberFilter)
+     *       - 연산자 제한 : 회원명은 앞부분 일치, 나이는 = 또는 범위, 팀 ID 는 = 또는 IN
+     * */
+    @Override
+    default void customize(QuerydslBindings bindings, QMember member) {
+        bindings.excludeUnlistedProperties(true);
+        bindings.including(member.username, member.age, member.team.id);
+
+        bindings.bind(member.username).first((path, value) -> path.startsWith(value.trim()));
+        bindings.bind(member.age).all((path, values) -> {
+            List<Integer> ages = new ArrayList<>(values);
+            return Optional.of(ages.size() == 1
+                    ? path.eq(ages.get(0))
+                    : path.between(Collections.min(ages), Collections.max(ages)));
+        });
+        bindings.bind(member.team.id).all((path, values) -> Optional.of(values.size() == 1
+                ? path.eq(values.iterator().next())
+                : path.in(values)));
+    }
+
     /**
      *   <스프링 데이터 JPA 리포지토리 전략>
      *       - 간단한 정적쿼리는 이름으로 매핑해서 자동 생성해 준다.
@@ -18,6 +53,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>
      *       - 메소드이름 분석해서 자동 생성시켜 줌
      *           : select m from Member m where m.username = :username 으로
      * */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     List<Member> findByUsername(String username);
 
     /**
@@ -27,6 +63,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>
      *       - 메소드이름 분석해서 자동 생성시켜 줌
      *           : select t from Team t where t.name = :name 으로
      * */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     List<Member> findByTeamName(String name);
 
 }
@@ -2,32 +2,58 @@ package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.AgeRange;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.repository.support.InClauseChunks;
+import study.querydsl.repository.shard.ShardedMemberRepository;
+import study.querydsl.repository.support.QueryGovernor;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+@Transactional(readOnly = true)   // 조회 전용 : flush 생략(FlushMode.MANUAL), 읽기 전용 커넥션
 public class MemberRepositoryImpl
 //        extends QuerydslRepositorySupport
         implements MemberRepositoryCustom
 {
 
+    // 여러 값 검색 조건 한번의 IN 에 넣을 최대 개수
+    private static final int SEARCH_IN_CHUNK_SIZE = 1000;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final TeamIdCache teamIdCache;
+    // OR 모드(matchAny) 검색 : UNION ALL 은 JPQL 로 만들 수 없으므로 JDBC 로 처리
+    private final MemberJdbcRepository memberJdbcRepository;
+    // 쿼리 타임아웃, 최대 행 수, 페이지 크기/offset 제한
+    private final QueryGovernor queryGovernor;
+    // 회원 샤딩(sharding.enabled=true)이면 검색을 샤드로 보낸다. (꺼져 있으면 null)
+    private final ShardedMemberRepository shardedMemberRepository;
 
-    public MemberRepositoryImpl(JPAQueryFactory jpaQueryFactory) {
+    public MemberRepositoryImpl(EntityManager em, JPAQueryFactory jpaQueryFactory, TeamIdCache teamIdCache,
+                                MemberJdbcRepository memberJdbcRepository, QueryGovernor queryGovernor,
+                                ObjectProvider<ShardedMemberRepository> shardedMemberRepository) {
+        this.em = em;
         this.queryFactory = jpaQueryFactory;
+        this.teamIdCache = teamIdCache;
+        this.memberJdbcRepository = memberJdbcRepository;
+        this.queryGovernor = queryGovernor;
+        this.shardedMemberRepository = shardedMemberRepository.getIfAvailable();
     }
 
 //    public MemberRepositoryImpl() {
@@ -36,6 +62,13 @@ public class MemberRepositoryImpl
 
     @Override
     public List<MemberTeamDto> search (MemberSearchCondition condition) {
+        if (shardedMemberRepository != null) {
+            return shardedMemberRepository.search(condition);
+        }
+        if (condition.isMatchAny()) {
+            flushBeforeJdbc();
+            return memberJdbcRepository.search(condition);
+        }
 
 //        return   from(member)
 //                .leftJoin(member.team, team)
@@ -54,7 +87,8 @@ public class MemberRepositoryImpl
 //                ))
 //                .fetch();
 
-        return queryFactory
+        // 최대 행 수(QueryGovernor)를 넘으면 잘라낸다. (X-Result-Truncated)
+        return queryGovernor.fetchCapped(queryFactory
                 .select(new QMemberTeamDto(
                         member.id
                         , member.username
@@ -65,22 +99,37 @@ public class MemberRepositoryImpl
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(   null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
-                )
-                .fetch();
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
+                ));
+    }
+
+    // OR 모드 JDBC 조회는 영속성 컨텍스트를 거치지 않으므로, 쓰기 트랜잭션 안이면 먼저 flush 한다. (JPQL 은 자동 flush)
+    private void flushBeforeJdbc() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
     }
 
     // 참고 : where 절에 파라미터 방식을 사용하면 조건 재사용 가능
     // 재사용을 위해서 Predicate -> BooleanExpression 변경해서 사용할 것.
     // private Predicate usernameEq(String username) {
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    // 회원명이 여러개면 IN 조건 (1개면 =, 많으면 SEARCH_IN_CHUNK_SIZE 단위 IN 을 OR 로 묶음)
+    private BooleanExpression usernameIn(List<String> usernames) {
+        return InClauseChunks.in(member.username, usernames, SEARCH_IN_CHUNK_SIZE);
     }
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 팀명 조건은 캐시로 팀 ID를 찾아서 member.team_id 조건으로 바꾼다. (team 조인이 필요 없음)
+    private BooleanExpression teamNameIn(List<String> teamNames) {
+        if (teamNames.isEmpty()) {
+            return null;
+        }
+        List<Long> teamIds = teamIdCache.findIdsByNames(teamNames);
+        return teamIds.isEmpty()
+                ? member.team.id.in(teamIds)      // 없는 팀 : 결과 없음 (1=2)
+                : InClauseChunks.in(member.team.id, teamIds, SEARCH_IN_CHUNK_SIZE);
     }
     private BooleanExpression ageGoe(int ageGoe) {
         return ageGoe > 0 ? member.age.goe(ageGoe) : null ;
@@ -88,6 +137,20 @@ public class MemberRepositoryImpl
     private BooleanExpression ageLoe(int ageLoe) {
         return ageLoe > 0 ? member.age.loe(ageLoe) : null ;
     }
+    // 나이 범위 여러개는 범위 조건을 OR 로 묶는다. (겹치는 범위는 미리 합쳐져 있음)
+    private BooleanExpression ageIn(List<AgeRange> ageRanges) {
+        BooleanExpression any = null;
+        for (AgeRange range : ageRanges) {
+            if (range.matchesNothing()) {
+                return Expressions.booleanTemplate("1 = 0");     // 빈 범위만 있으면 결과 없음
+            }
+            BooleanExpression in = !range.hasLoe() ? member.age.goe(range.getGoe())
+                    : range.hasGoe() ? member.age.between(range.getGoe(), range.getLoe())
+                    : member.age.loe(range.getLoe());
+            any = any == null ? in : any.or(in);
+        }
+        return any;
+    }
 
 
     /**
@@ -97,7 +160,15 @@ public class MemberRepositoryImpl
      * */
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
+        if (shardedMemberRepository != null) {
+            return shardedMemberRepository.searchPageSimple(condition, pageable);
+        }
+        if (condition.isMatchAny()) {
+            flushBeforeJdbc();
+            return memberJdbcRepository.searchPage(condition, pageable, true);
+        }
+        queryGovernor.checkPage(pageable);     // 페이지 크기, offset 제한 (넘으면 400)
+        QueryResults<MemberTeamDto> results = queryGovernor.withTimeout(queryFactory
                 .select(new QMemberTeamDto(
                         member.id
                         , member.username
@@ -108,13 +179,14 @@ public class MemberRepositoryImpl
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(pageable.getPageSize()))
                 .fetchResults();                               // <= 이 부분이 중요함.
 
         List<MemberTeamDto> content = results.getResults();
@@ -136,7 +208,15 @@ public class MemberRepositoryImpl
      * */
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+        if (shardedMemberRepository != null) {
+            return shardedMemberRepository.searchPageComplex(condition, pageable);
+        }
+        if (condition.isMatchAny()) {
+            flushBeforeJdbc();
+            return memberJdbcRepository.searchPage(condition, pageable, true);
+        }
+        queryGovernor.checkPage(pageable);     // 페이지 크기, offset 제한 (넘으면 400)
+        List<MemberTeamDto> content = queryGovernor.withTimeout(queryFactory
                 .select(new QMemberTeamDto(
                         member.id
                         , member.username
@@ -147,32 +227,23 @@ public class MemberRepositoryImpl
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(pageable.getPageSize()))
                 .fetch();                                      // <= 전체 건수를 따로 구현하고자 할때...
 
         // 카운트가 필요 없을 때
         // 카운트 쿼리를 최적화 하고 싶을 때...
         // 전체 건수를 직접, 따로 구현하고자 할 때...
-        long total = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
-                        , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
-                        , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
-                )
-                .fetchCount()
-                ;
+        //   - 모든 조건이 member 테이블 컬럼이므로 team 조인 없이 카운트한다.
+        Long total = countQuery(condition).fetchOne();
 
-        return new PageImpl<>(content, pageable, total);
+        return new PageImpl<>(content, pageable, total == null ? 0L : total);
     }
 
 
@@ -186,7 +257,15 @@ public class MemberRepositoryImpl
      * */
     @Override
     public Page<MemberTeamDto> searchPageCount(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+        if (shardedMemberRepository != null) {
+            return shardedMemberRepository.searchPageCount(condition, pageable);
+        }
+        if (condition.isMatchAny()) {
+            flushBeforeJdbc();
+            return memberJdbcRepository.searchPage(condition, pageable, false);
+        }
+        queryGovernor.checkPage(pageable);     // 페이지 크기, offset 제한 (넘으면 400)
+        List<MemberTeamDto> content = queryGovernor.withTimeout(queryFactory
                 .select(new QMemberTeamDto(
                         member.id
                         , member.username
@@ -197,30 +276,41 @@ public class MemberRepositoryImpl
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(pageable.getPageSize()))
                 .fetch();                                      // <= 전체 건수를 따로 구현하고자 할때...
 
         // 카운트가 필요 없을 때
         // 마지막 페이지 등은 카운트 쿼리를 수행할 필요 없으므로, 최적화 됨.
-       JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        //return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     *   <카운트 쿼리>
+     *       - 팀명 조건은 팀 ID 조건(member.team_id)으로 바뀌므로 team 조인이 필요 없다.
+     *       - 타임아웃(QueryGovernor)은 컨텐츠 쿼리와 같다.
+     *
+     * */
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        return queryGovernor.withTimeout(queryFactory
+                .select(member.count())
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(null
-                        , usernameEq(condition.getUsername())  // 입력이  null 값이면 조건이 무시된다.
-                        , teamNameEq(condition.getTeamName())  // 입력이  null 값이면 조건이 무시된다.
+                        , usernameIn(condition.usernameValues())  // 목록이 비어 있으면 조건이 무시된다.
+                        , teamNameIn(condition.teamNameValues())  // 목록이 비어 있으면 조건이 무시된다.
                         , ageGoe(condition.getAgeGoe())        // 입력이  null 값이면 조건이 무시된다.
                         , ageLoe(condition.getAgeLoe())        // 입력이  null 값이면 조건이 무시된다.
-                );
-
-        //return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+                        , ageIn(condition.ageRangeValues())       // 목록이 비어 있으면 조건이 무시된다.
+                ));
     }
 
 }
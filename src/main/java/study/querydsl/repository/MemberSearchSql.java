@@ -0,0 +1,224 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import study.querydsl.dto.AgeRange;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.InClauseChunks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <회원 검색 조건 → SQL where 절>
+ *     - JDBC 로 직접 조회하는 경로에서 Querydsl 조건(usernameIn, teamNameIn, ageGoe, ageLoe, ageIn)과 같은 조건을 만든다.
+ *     - 회원 테이블 별칭은 m 으로 고정한다. (member m)
+ *     - 팀명은 TeamIdCache 로 팀 ID 로 바꾸므로 team 조인 없이 사용할 수 있다. (카운트 쿼리 등)
+ *     - OR 모드(matchAny)는 회원 id 서브쿼리(UNION ALL)가 되므로, where 절을 쓰는 곳은 그대로 사용할 수 있다.
+ * */
+@Getter
+public class MemberSearchSql {
+
+    // 여러 값 조건 한번의 IN 에 넣을 최대 개수
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final String where;         // " where ..." 또는 ""
+    private final List<Object> args;    // ? 파라미터 (순서대로)
+    private final List<Long> teamIds;   // 결과 회원의 팀 ID 목록 (팀명 조건이 없거나 OR 모드면 null)
+
+    private MemberSearchSql(String where, List<Object> args, List<Long> teamIds) {
+        this.where = where;
+        this.args = Collections.unmodifiableList(args);
+        this.teamIds = teamIds;
+    }
+
+    public static MemberSearchSql of(MemberSearchCondition condition, TeamIdCache teamIdCache) {
+        return of(condition, teamIdCache::findIdsByName);
+    }
+
+    /**
+     * teamIdsByName : 팀명 -> 팀 ID 목록 (TeamIdCache 가 없는 다른 DB 에서 사용)
+     * */
+    public static MemberSearchSql of(MemberSearchCondition condition, Function<String, List<Long>> teamIdsByName) {
+        List<Long> teamIds = teamIds(condition.teamNameValues(), teamIdsByName);
+        List<Predicate> predicates = predicates(condition, teamIds, "m.");
+        if (condition.isMatchAny() && predicates.size() > 1) {
+            return anyOf(predicates(condition, teamIds, "b."));
+        }
+
+        List<String> sqls = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (Predicate predicate : predicates) {
+            sqls.add(predicate.sql);
+            args.addAll(predicate.args);
+        }
+        String where = sqls.isEmpty() ? "" : " where " + String.join(" and ", sqls);
+        return new MemberSearchSql(where, args, teamIds);
+    }
+
+    /**
+     * OR 모드 (matchAny) : 항목별 조건을 UNION ALL 로 나눈다.
+     *     - where m.member_id in (select .. where 회원명
+     *                             union all select .. where 팀 and not 회원명
+     *                             union all select .. where 나이 and not 회원명 and not 팀)
+     *     - where 절의 OR 는 인덱스를 쓰지 못하므로, 항목마다 자기 인덱스로 찾는 select 로 나눈다.
+     *     - 앞 branch 조건을 부정해서 붙이므로 같은 회원이 두번 나오지 않는다. (null 컬럼은 is null 포함)
+     *     - 정렬/페이징/건수는 바깥 쿼리에서 합친 결과에 적용한다.
+     *     - 어느 샤드에 있는지 알 수 없으므로 teamIds 는 null
+     * */
+    private static MemberSearchSql anyOf(List<Predicate> predicates) {
+        List<Predicate> branches = new ArrayList<>();
+        for (Predicate predicate : predicates) {
+            if (!predicate.none) {
+                branches.add(predicate);
+            }
+        }
+        if (branches.isEmpty()) {
+            return new MemberSearchSql(" where 1 = 0", new ArrayList<>(), null);
+        }
+
+        List<String> selects = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < branches.size(); i++) {
+            List<String> sqls = new ArrayList<>();
+            sqls.add(branches.get(i).sql);
+            args.addAll(branches.get(i).args);
+            for (int j = 0; j < i; j++) {
+                sqls.add(branches.get(j).negated());
+                args.addAll(branches.get(j).args);
+            }
+            selects.add("select b.member_id from member b where " + String.join(" and ", sqls));
+        }
+        return new MemberSearchSql(" where m.member_id in (" + String.join(" union all ", selects) + ")", args, null);
+    }
+
+    // 팀명 → 팀 ID 목록 (팀명 조건이 없으면 null)
+    private static List<Long> teamIds(List<String> teamNames, Function<String, List<Long>> teamIdsByName) {
+        if (teamNames.isEmpty()) {
+            return null;
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String teamName : teamNames) {
+            ids.addAll(teamIdsByName.apply(teamName));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * 항목별 조건 (회원명, 팀, 나이)
+     *     - alias : 회원 테이블 별칭 ("m." 또는 "b.")
+     *     - 나이 조건(ageGoe, ageLoe, ageRanges)은 하나로 묶는다.
+     * */
+    private static List<Predicate> predicates(MemberSearchCondition condition, List<Long> teamIds, String alias) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        List<String> usernames = condition.usernameValues();
+        if (!usernames.isEmpty()) {
+            List<Object> args = new ArrayList<>();
+            predicates.add(new Predicate(in(alias + "username", usernames, args), args, alias + "username", false));
+        }
+        if (teamIds != null) {
+            List<Object> args = new ArrayList<>();
+            predicates.add(teamIds.isEmpty()
+                    ? new Predicate("1 = 0", args, null, true)
+                    : new Predicate(in(alias + "team_id", teamIds, args), args, alias + "team_id", false));
+        }
+
+        List<String> ages = new ArrayList<>();
+        List<Object> ageArgs = new ArrayList<>();
+        if (condition.getAgeGoe() > 0) {
+            ages.add(alias + "age >= ?");
+            ageArgs.add(condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() > 0) {
+            ages.add(alias + "age <= ?");
+            ageArgs.add(condition.getAgeLoe());
+        }
+        List<AgeRange> ageRanges = condition.ageRangeValues();
+        if (AgeRange.matchesNothing(ageRanges)) {
+            predicates.add(new Predicate("1 = 0", new ArrayList<>(), null, true));     // 빈 범위만 있으면 결과 없음
+            return predicates;
+        }
+        if (!ageRanges.isEmpty()) {
+            ages.add(ageIn(alias + "age", ageRanges, ageArgs));
+        }
+        if (!ages.isEmpty()) {
+            predicates.add(new Predicate(String.join(" and ", ages), ageArgs, null, false));
+        }
+        return predicates;
+    }
+
+    /**
+     * IN 조건
+     *     - 1개면 =, 여러개면 IN_CHUNK_SIZE 단위로 나눈 IN 을 OR 로 묶는다.
+     *     - 조각은 2의 제곱 크기로 채우므로(InClauseChunks.padded) SQL 모양이 몇 가지로 제한된다. (문장 캐시)
+     * */
+    private static <T> String in(String column, List<T> values, List<Object> args) {
+        if (values.size() == 1) {
+            args.add(values.get(0));
+            return column + " = ?";
+        }
+        List<String> ins = new ArrayList<>();
+        for (List<T> chunk : InClauseChunks.padded(values, IN_CHUNK_SIZE)) {
+            ins.add(column + " in (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")");
+            args.addAll(chunk);
+        }
+        return ins.size() == 1 ? ins.get(0) : "(" + String.join(" or ", ins) + ")";
+    }
+
+    // 나이 범위 목록 : 범위 조건을 OR 로 묶는다. (겹치는 범위는 미리 합쳐져 있음)
+    private static String ageIn(String column, List<AgeRange> ageRanges, List<Object> args) {
+        List<String> ranges = new ArrayList<>();
+        for (AgeRange range : ageRanges) {
+            if (range.hasGoe() && range.hasLoe()) {
+                ranges.add(column + " between ? and ?");
+                args.add(range.getGoe());
+                args.add(range.getLoe());
+            } else if (range.hasGoe()) {
+                ranges.add(column + " >= ?");
+                args.add(range.getGoe());
+            } else {
+                ranges.add(column + " <= ?");
+                args.add(range.getLoe());
+            }
+        }
+        return ranges.size() == 1 ? ranges.get(0) : "(" + String.join(" or ", ranges) + ")";
+    }
+
+    // 뒤에 파라미터를 더 붙인 배열 (limit, offset 등)
+    public Object[] argsWith(Object... more) {
+        List<Object> all = new ArrayList<>(args);
+        Collections.addAll(all, more);
+        return all.toArray();
+    }
+
+    /**
+     * <항목 조건 하나>
+     *     - nullableColumn : null 일 수 있는 컬럼 (부정할 때 is null 을 포함해야 함)
+     *     - none : 결과가 없는 조건 (없는 팀명)
+     * */
+    private static final class Predicate {
+
+        private final String sql;
+        private final List<Object> args;
+        private final String nullableColumn;
+        private final boolean none;
+
+        private Predicate(String sql, List<Object> args, String nullableColumn, boolean none) {
+            this.sql = sql;
+            this.args = args;
+            this.nullableColumn = nullableColumn;
+            this.none = none;
+        }
+
+        // not (조건) : 컬럼이 null 이면 not 결과도 null 이므로 is null 을 따로 포함한다.
+        private String negated() {
+            return nullableColumn == null
+                    ? "not (" + sql + ")"
+                    : "(" + nullableColumn + " is null or not (" + sql + "))";
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.StatementOptions;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeRange;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.InClauseChunks;
+import study.querydsl.repository.support.QueryGovernor;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <회원 검색 querydsl-sql 경로>
+ *     - JPQL 파싱, SQL 변환, 엔티티 메타모델, 하이버네이트 결과 처리 없이 SQL 쿼리 타입(SMember, STeam)으로 바로 조회해서 DTO 로 만든다.
+ *     - 조건은 MemberJpaRepository 와 같다. (팀명은 TeamIdCache 로 member.team_id 조건)
+ *     - 현재 트랜잭션의 커넥션을 사용하고, 영속성 컨텍스트를 거치지 않는다.
+ *       : flush 하지 않은 변경은 보이지 않으므로 호출하는 쪽에서 flush 한다. (MemberJpaRepository)
+ *     - 타임아웃, 최대 행 수는 QueryGovernor 를 따른다.
+ * */
+@Repository
+@Transactional(readOnly = true)
+public class MemberSqlRepository {
+
+    // 여러 값 검색 조건 한번의 IN 에 넣을 최대 개수
+    private static final int SEARCH_IN_CHUNK_SIZE = 1000;
+
+    private static final SMember m = new SMember("m");
+    private static final STeam t = new STeam("t");
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final TeamIdCache teamIdCache;
+    private final QueryGovernor queryGovernor;
+
+    public MemberSqlRepository(SQLQueryFactory sqlQueryFactory, TeamIdCache teamIdCache, QueryGovernor queryGovernor) {
+        this.sqlQueryFactory = sqlQueryFactory;
+        this.teamIdCache = teamIdCache;
+        this.queryGovernor = queryGovernor;
+    }
+
+    /**
+     * 회원 + 팀 검색 (MemberJpaRepository.search 와 같은 결과)
+     *     - 최대 행 수를 넘으면 잘라낸다.
+     * */
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int maxRows = queryGovernor.maxRows();
+        return queryGovernor.cap(withTimeout(selectMemberTeam()
+                .where(   usernameIn(condition.usernameValues())
+                        , teamNameIn(condition.teamNameValues())
+                        , ageGoe(condition.getAgeGoe())
+                        , ageLoe(condition.getAgeLoe())
+                        , ageIn(condition.ageRangeValues())
+                )
+                .limit(maxRows + 1L))
+                .fetch());
+    }
+
+    /**
+     * 여러 팀 한번에 조회 (MemberJpaRepository.searchInTeams 와 같은 결과, condition 의 팀명은 무시)
+     *     - 팀 수 x (최대 행 수 + 1) 건까지만 조회한다.
+     * */
+    public List<MemberTeamDto> searchInTeams(MemberSearchCondition condition, Collection<String> teamNames) {
+        return withTimeout(selectMemberTeam()
+                .where(   usernameIn(condition.usernameValues())
+                        , teamNameIn(teamNames)
+                        , ageGoe(condition.getAgeGoe())
+                        , ageLoe(condition.getAgeLoe())
+                        , ageIn(condition.ageRangeValues())
+                )
+                .limit(teamNames.size() * (queryGovernor.maxRows() + 1L)))
+                .fetch();
+    }
+
+    // select m.member_id, m.username, m.age, t.team_id, t.name from member m left join team t on t.team_id = m.team_id
+    private SQLQuery<MemberTeamDto> selectMemberTeam() {
+        return sqlQueryFactory
+                .select(new QMemberTeamDto(
+                        m.memberId
+                        , m.username
+                        , m.age
+                        , t.teamId
+                        , t.name
+                ))
+                .from(m)
+                .leftJoin(t).on(t.teamId.eq(m.teamId));
+    }
+
+    // JDBC 쿼리 타임아웃 (QueryGovernor, 초 단위)
+    private <T> SQLQuery<T> withTimeout(SQLQuery<T> query) {
+        int timeoutSeconds = queryGovernor.timeoutSeconds();
+        if (timeoutSeconds > 0) {
+            query.setStatementOptions(StatementOptions.builder().setQueryTimeout(timeoutSeconds).build());
+        }
+        return query;
+    }
+
+    // 회원명이 여러개면 IN 조건 (1개면 =, 많으면 SEARCH_IN_CHUNK_SIZE 단위 IN 을 OR 로 묶음)
+    private BooleanExpression usernameIn(List<String> usernames) {
+        return InClauseChunks.in(m.username, usernames, SEARCH_IN_CHUNK_SIZE);
+    }
+    // 팀명 조건은 캐시로 팀 ID를 찾아서 member.team_id 조건으로 바꾼다.
+    private BooleanExpression teamNameIn(Collection<String> teamNames) {
+        if (teamNames.isEmpty()) {
+            return null;
+        }
+        List<Long> teamIds = teamIdCache.findIdsByNames(teamNames);
+        return teamIds.isEmpty()
+                ? m.teamId.in(teamIds)      // 없는 팀 : 결과 없음
+                : InClauseChunks.in(m.teamId, teamIds, SEARCH_IN_CHUNK_SIZE);
+    }
+    private BooleanExpression ageGoe(int ageGoe) {
+        return ageGoe > 0 ? m.age.goe(ageGoe) : null;
+    }
+    private BooleanExpression ageLoe(int ageLoe) {
+        return ageLoe > 0 ? m.age.loe(ageLoe) : null;
+    }
+    // 나이 범위 여러개는 범위 조건을 OR 로 묶는다. (겹치는 범위는 미리 합쳐져 있음)
+    private BooleanExpression ageIn(List<AgeRange> ageRanges) {
+        BooleanExpression any = null;
+        for (AgeRange range : ageRanges) {
+            if (range.matchesNothing()) {
+                return Expressions.booleanTemplate("1 = 0");     // 빈 범위만 있으면 결과 없음
+            }
+            BooleanExpression in = !range.hasLoe() ? m.age.goe(range.getGoe())
+                    : range.hasGoe() ? m.age.between(range.getGoe(), range.getLoe())
+                    : m.age.loe(range.getLoe());
+            any = any == null ? in : any.or(in);
+        }
+        return any;
+    }
+}
@@ -1,55 +1,72 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeRange;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.InClauseChunks;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
+import java.util.Collection;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true)   // 조회 전용 : flush 생략(FlushMode.MANUAL), 읽기 전용 커넥션
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
-    public MemberTestRepository() {
+    // 여러 값 검색 조건 한번의 IN 에 넣을 최대 개수
+    private static final int SEARCH_IN_CHUNK_SIZE = 1000;
+
+    private final TeamIdCache teamIdCache;
+
+    public MemberTestRepository(TeamIdCache teamIdCache) {
         super(Member.class);
+        this.teamIdCache = teamIdCache;
     }
 
     public List<Member> basicSelect() {
-        return select(member)
-                .from(member)
+        return readOnly(select(member)
+                .from(member))
                 .fetch();
     }
 
     public List<Member> basicSelectFrom() {
-        return selectFrom(member)
+        return readOnly(selectFrom(member))
                 .fetch();
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition,
                                               Pageable pageable) {
+        requireAllOf(condition);
         JPAQuery<Member> query =
                 selectFrom(member)
                 .leftJoin(member.team, team)
-                .where( usernameEq(condition.getUsername())
-                      , teamNameEq(condition.getTeamName())   // 콤마(,)는 and 와 같음
+                .where( usernameIn(condition.usernameValues())
+                      , teamNameIn(condition.teamNameValues()) // 콤마(,)는 and 와 같음
                       , ageGoe(condition.getAgeGoe())
                       , ageLoe(condition.getAgeLoe())
+                      , ageIn(condition.ageRangeValues())
                 );
 
         List<Member> content = getQuerydsl()
-                .applyPagination(pageable, query)
+                .applyPagination(pageable, readOnly(query))
                 .fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        // 카운트 쿼리는 orderBy, 필요없는 조인을 제거해서 자동 생성한다.
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(query));
     }
 
     /**
@@ -58,14 +75,16 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
      * */
     public Page<Member> applyPagination( MemberSearchCondition condition
                                        , Pageable pageable) {
+        requireAllOf(condition);
         return applyPagination(pageable
                 , contentQuery -> contentQuery
                 .selectFrom(member)
                 .leftJoin(member.team, team)
-                .where( usernameEq(condition.getUsername())
-                      , teamNameEq(condition.getTeamName())  // 콤마(,)는 and 와 같음
+                .where( usernameIn(condition.usernameValues())
+                      , teamNameIn(condition.teamNameValues()) // 콤마(,)는 and 와 같음
                       , ageGoe(condition.getAgeGoe())
                       , ageLoe(condition.getAgeLoe())
+                      , ageIn(condition.ageRangeValues())
                 )
                 .orderBy(member.username.desc())
         );
@@ -74,42 +93,139 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     /**
      * Complex Paging 기능
      *     - Count 쿼리를 별도로 분리하기.
+     *     - 별도로 넘긴 Count 쿼리도 orderBy, 필요없는 조인은 자동으로 제거된다.
      *
      * */
     public Page<Member> applyPagination2 ( MemberSearchCondition condition
                                          , Pageable pageable) {
+        requireAllOf(condition);
         return applyPagination(pageable, contentQuery -> contentQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
-                        .where( usernameEq(condition.getUsername())
-                              , teamNameEq(condition.getTeamName())    // 콤마(,)는 and 와 같음
+                        .where( usernameIn(condition.usernameValues())
+                              , teamNameIn(condition.teamNameValues()) // 콤마(,)는 and 와 같음
                               , ageGoe(condition.getAgeGoe())
-                              , ageLoe(condition.getAgeLoe()))
+                              , ageLoe(condition.getAgeLoe())
+                              , ageIn(condition.ageRangeValues()))
                         .orderBy(member.username.desc())
                       , countQuery -> countQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
-                        .where( usernameEq(condition.getUsername())
-                              , teamNameEq(condition.getTeamName())     // 콤마(,)는 and 와 같음
+                        .where( usernameIn(condition.usernameValues())
+                              , teamNameIn(condition.teamNameValues())  // 콤마(,)는 and 와 같음
                               , ageGoe(condition.getAgeGoe())
                               , ageLoe(condition.getAgeLoe())
+                              , ageIn(condition.ageRangeValues())
                         )
-                        .orderBy(member.username.desc())
         );
     }
 
+    /**
+     * 요청 기반 fetch plan Paging 기능
+     *     - expand 에 요청한 연관관계(team)만 엔티티 그래프로 한번에 조회한다.
+     *     - expand 가 비어 있으면 회원만 조회한다. (팀은 지연 로딩)
+     *
+     * */
+    public Page<Member> searchPageWithExpand( MemberSearchCondition condition
+                                            , Pageable pageable
+                                            , Collection<String> expand) {
+        requireAllOf(condition);
+        return applyPagination(pageable
+                , contentQuery -> withFetchGraph(contentQuery
+                        .selectFrom(member)
+                        .where( usernameIn(condition.usernameValues())
+                              , teamNameIn(condition.teamNameValues()) // 콤마(,)는 and 와 같음
+                              , ageGoe(condition.getAgeGoe())
+                              , ageLoe(condition.getAgeLoe())
+                              , ageIn(condition.ageRangeValues()))
+                        .orderBy(member.id.asc())
+                        , expand)
+        );
+    }
+
+    /**
+     * 2단계 Paging 기능
+     *     - 1단계 : 회원 id만 페이징 (팀명 조건도 team_id 조건이므로 조인이 필요 없음)
+     *     - 2단계 : id 목록으로 회원 + 팀을 fetch join 해서 한번에 조회
+     *
+     * */
+    public Page<Member> searchPageByIds( MemberSearchCondition condition
+                                       , Pageable pageable) {
+        requireAllOf(condition);
+        return applyPaginationByIds(pageable
+                , idQuery -> idQuery
+                        .select(member.id)
+                        .from(member)
+                        .where( usernameIn(condition.usernameValues())
+                              , teamNameIn(condition.teamNameValues()) // 콤마(,)는 and 와 같음
+                              , ageGoe(condition.getAgeGoe())
+                              , ageLoe(condition.getAgeLoe())
+                              , ageIn(condition.ageRangeValues()))
+                        .orderBy(member.id.asc())
+                , (contentQuery, ids) -> readOnly(contentQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team).fetchJoin()
+                        .where(member.id.in(ids)))
+                        .fetch()
+                , Member::getId
+        );
+    }
+
+    /**
+     * 필터 Paging 기능 (@QuerydslPredicate 바인딩 결과)
+     *     - predicate 는 MemberFilter 로 검증하고 MemberRepository.customize() 로 바인딩한 조건만 받는다.
+     *     - 엔티티 대신 DTO 로 조회한다. (영속성 컨텍스트에 올리지 않음)
+     *     - 카운트 쿼리는 조건에서 쓰지 않는 team 조인을 빼고 자동 생성한다.
+     *
+     * */
+    public Page<MemberTeamDto> searchByFilter(Predicate predicate, Pageable pageable) {
+        return applyPagination(pageable
+                , contentQuery -> contentQuery
+                        .select(new QMemberTeamDto(
+                                member.id
+                                , member.username
+                                , member.age
+                                , team.id
+                                , team.name
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(predicate)
+        );
+    }
+
+    /**
+     *  <OR 모드 검증>
+     *      - 엔티티 조회는 조건을 and 로만 묶는다. OR 모드(matchAny)는 MemberJpaRepository, MemberRepository 의 DTO 검색을 사용할 것.
+     *      - 조용히 and 로 검색하면 다른 결과가 나오므로 거절한다.
+     * */
+    private static void requireAllOf(MemberSearchCondition condition) {
+        if (condition.isMatchAny()) {
+            throw new IllegalArgumentException("엔티티 조회는 OR 모드(matchAny)를 지원하지 않습니다.");
+        }
+    }
+
     /**
      *  <회원명 입력조건 null 검증>
+     *      - username + usernames 를 합친 값 : 1개면 =, 여러개면 IN (많으면 나눠서 OR)
      * */
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
+    private BooleanExpression usernameIn(List<String> usernames) {
+        return InClauseChunks.in(member.username, usernames, SEARCH_IN_CHUNK_SIZE);
     }
 
     /**
      *  <팀명 입력조건 null 검증>
+     *      - 팀명은 캐시로 팀 ID를 찾아서 member.team_id 조건으로 바꾼다.
+     *      - 카운트 쿼리는 team 을 참조하지 않으므로 조인 없이 수행된다.
      * */
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    private BooleanExpression teamNameIn(List<String> teamNames) {
+        if (teamNames.isEmpty()) {
+            return null;
+        }
+        List<Long> teamIds = teamIdCache.findIdsByNames(teamNames);
+        return teamIds.isEmpty()
+                ? member.team.id.in(teamIds)      // 없는 팀 : 결과 없음 (1=2)
+                : InClauseChunks.in(member.team.id, teamIds, SEARCH_IN_CHUNK_SIZE);
     }
 
     /**
@@ -125,4 +241,22 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe == null ? null : member.age.loe(ageLoe);
     }
+
+    /**
+     *  <나이 범위 목록 입력조건 null 검증>
+     *      - 범위 조건을 OR 로 묶는다. (겹치는 범위는 미리 합쳐져 있음)
+     * */
+    private BooleanExpression ageIn(List<AgeRange> ageRanges) {
+        BooleanExpression any = null;
+        for (AgeRange range : ageRanges) {
+            if (range.matchesNothing()) {
+                return Expressions.booleanTemplate("1 = 0");     // 빈 범위만 있으면 결과 없음
+            }
+            BooleanExpression in = !range.hasLoe() ? member.age.goe(range.getGoe())
+                    : range.hasGoe() ? member.age.between(range.getGoe(), range.getLoe())
+                    : member.age.loe(range.getLoe());
+            any = any == null ? in : any.or(in);
+        }
+        return any;
+    }
 }
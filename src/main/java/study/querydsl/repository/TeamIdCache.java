@@ -0,0 +1,97 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * <팀명 → 팀 ID 캐시>
+ *     - 팀명 조건(team.name = ?)은 member left join team 을 강제한다.
+ *     - 팀명을 팀 ID로 먼저 바꿔두면 member.team_id = ? 조건이 되어 member 테이블만으로 검색할 수 있다.
+ *     - 팀명은 유일하지 않을 수 있으므로 ID 목록으로 저장한다.
+ *     - Team 이 저장/수정/삭제되면 TeamIdCacheListener 가 캐시를 비운다.
+ *     - 없는 팀명은 캐시하지 않는다. (임의의 팀명으로 캐시가 커지는 것을 막음)
+ *     - 팀명별 세대(generation)를 둔다. evict/clear 가 세대를 올리고,
+ *       조회를 시작한 뒤 세대가 바뀌었으면 읽어온 목록은 캐시에 남기지 않는다.
+ *       (커밋 시점의 evict 보다 늦게 저장되는 예전 목록을 막음)
+ * */
+@Component
+public class TeamIdCache {
+
+    private final JPAQueryFactory queryFactory;
+    private final ConcurrentMap<String, List<Long>> idsByName = new ConcurrentHashMap<>();
+    // evict 된 팀명의 세대, clear 의 세대
+    private final ConcurrentMap<String, Long> generationByName = new ConcurrentHashMap<>();
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    public TeamIdCache(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    /**
+     * 팀명으로 팀 ID 목록 조회 (캐시에 없으면 DB 조회)
+     * */
+    public List<Long> findIdsByName(String name) {
+        List<Long> ids = idsByName.get(name);
+        if (ids != null) {
+            return ids;
+        }
+
+        Long generation = generationByName.get(name);
+        long cleared = clearGeneration.get();
+        List<Long> loaded = List.copyOf(queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(name))
+                .orderBy(team.id.asc())
+                .fetch());
+
+        if (!loaded.isEmpty() && isCurrent(name, generation, cleared)) {
+            idsByName.putIfAbsent(name, loaded);
+            // 저장과 evict 가 엇갈린 경우 : 저장한 목록을 다시 뺀다.
+            if (!isCurrent(name, generation, cleared)) {
+                idsByName.remove(name, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 팀명 여러개로 팀 ID 목록 조회 (중복 제거, 팀명 순서)
+     * */
+    public List<Long> findIdsByNames(Collection<String> names) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String name : names) {
+            ids.addAll(findIdsByName(name));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public void evict(String name) {
+        if (name != null) {
+            generationByName.merge(name, 1L, Long::sum);
+            idsByName.remove(name);
+        }
+    }
+
+    public void clear() {
+        clearGeneration.incrementAndGet();
+        idsByName.clear();
+    }
+
+    // 조회를 시작한 뒤 evict/clear 가 없었는지 여부
+    private boolean isCurrent(String name, Long generation, long cleared) {
+        return clearGeneration.get() == cleared && Objects.equals(generationByName.get(name), generation);
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Team;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * <Team 엔티티 리스너>
+ *     - Team 변경 시 TeamIdCache 를 비운다.
+ *     - flush 시점에 한번, 커밋(롤백) 후에 한번 더 비운다.
+ *       (커밋 전에 다른 트랜잭션이 예전 값을 다시 캐시하는 경우를 막음)
+ *     - 스프링 부트는 엔티티 리스너를 스프링 빈 컨테이너로 생성하므로 주입이 가능하다.
+ *     - Querydsl 벌크 연산으로 팀을 바꾸면 리스너가 호출되지 않으므로 TeamIdCache.clear() 를 직접 호출할 것.
+ * */
+public class TeamIdCacheListener {
+
+    @Autowired
+    private ObjectProvider<TeamIdCache> teamIdCache;
+
+    @PostPersist
+    public void afterPersist(Team team) {
+        evict(team.getName());
+    }
+
+    @PostUpdate
+    public void afterUpdate(Team team) {
+        // 이전 팀명을 알 수 없으므로 전체를 비운다.
+        evict(null);
+    }
+
+    @PostRemove
+    public void afterRemove(Team team) {
+        evict(team.getName());
+    }
+
+    private void evict(String name) {
+        TeamIdCache cache = teamIdCache == null ? null : teamIdCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+
+        Runnable eviction = name == null ? cache::clear : () -> cache.evict(name);
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
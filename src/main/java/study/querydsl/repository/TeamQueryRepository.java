@@ -0,0 +1,51 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QTeamMembersDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+
+import static com.querydsl.core.group.GroupBy.groupBy;
+import static com.querydsl.core.group.GroupBy.map;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@Transactional(readOnly = true)   // 조회 전용 : flush 생략(FlushMode.MANUAL), 읽기 전용 커넥션
+public class TeamQueryRepository extends Querydsl4RepositorySupport {
+
+    public TeamQueryRepository() {
+        super(Team.class);
+    }
+
+    /**
+     * 팀 + 소속 회원 목록 Paging 기능
+     *     - 1단계 : 팀 id만 페이징
+     *     - 2단계 : team left join member 를 DTO 로 조회하고, GroupBy.transform 으로 팀 단위로 묶는다.
+     *     - 엔티티(Team.members 컬렉션)를 로딩하지 않으므로 팀마다 지연 로딩이 발생하지 않는다.
+     *
+     * */
+    public Page<TeamMembersDto> searchTeamsWithMembers(Pageable pageable) {
+        return applyPaginationByIds(pageable
+                , idQuery -> idQuery
+                        .select(team.id)
+                        .from(team)
+                , (contentQuery, ids) -> contentQuery
+                        .from(team)
+                        .leftJoin(team.members, member)
+                        .where(team.id.in(ids))
+                        .orderBy(team.id.asc(), member.id.asc())
+                        .transform(groupBy(team.id).list(new QTeamMembersDto(
+                                  team.id
+                                , team.name
+                                , map(member.id, new QMemberDto(member.username, member.age))
+                        )))
+                , TeamMembersDto::getTeamId
+        );
+    }
+}
@@ -0,0 +1,155 @@
+package study.querydsl.repository.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import study.querydsl.change.ChangeFeedPoller;
+import study.querydsl.change.ChangeSubscriber;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamDto;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.repository.support.InClauseChunks;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <기본 DB → 회원 샤드 동기화>
+ *     - 회원/팀을 바꾸는 모든 경로는 변경 이벤트(outbox)를 남긴다.
+ *       : JPA 저장/수정/삭제 (ChangeEventListener), 팀 일괄 변경 (reassignTeam),
+ *         대량 처리 (MemberBulkRepository), write-behind 버퍼 (MemberWriteBehindBuffer)
+ *     - 변경 피드(ChangeSubscriber)로 바뀐 회원/팀의 현재 값을 기본 DB 에서 다시 읽어서 샤드에 저장한다.
+ *       : 기본 DB 에 없으면 샤드에서도 삭제한다. (같은 이벤트를 여러번 받아도 결과가 같음)
+ *     - 시작 시 : 샤드를 비우고 기본 DB 의 전체 팀/회원을 샤드에 복사한다. (sharding.sync.backfill=false 로 끔)
+ *     - 샤드 조회는 변경 피드 주기(change-feed.poll-interval-ms)만큼 늦게 반영된다.
+ *
+ *     - sharding.enabled=true 이면 켜진다. 변경 피드(change-feed.enabled)가 꺼져 있으면 시작하지 않는다.
+ *     - sharding.sync.enabled=false 로 끌 수 있다. (샤드에 직접 저장하는 테스트 등)
+ * */
+@Slf4j
+@Component
+@ConditionalOnExpression("${sharding.enabled:false} and ${sharding.sync.enabled:true}")
+public class MemberShardSync implements ChangeSubscriber {
+
+    private static final String MEMBERS_BY_IDS = "select member_id, username, age, team_id from member where member_id in (";
+    private static final String TEAMS_BY_IDS = "select team_id, name from team where team_id in (";
+    private static final String MEMBERS_AFTER =
+            "select member_id, username, age, team_id from member where member_id > ? order by member_id limit ?";
+    private static final String TEAMS_AFTER = "select team_id, name from team where team_id > ? order by team_id limit ?";
+    private static final int CHUNK_SIZE = 1000;
+
+    // 회원 행 (팀명은 사용하지 않음)
+    private static final RowMapper<MemberTeamDto> MEMBER_ROW_MAPPER = (rs, rowNum) -> {
+        long teamId = rs.getLong(4);
+        return new MemberTeamDto(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.wasNull() ? null : teamId, null);
+    };
+    private static final RowMapper<TeamDto> TEAM_ROW_MAPPER = (rs, rowNum) -> new TeamDto(rs.getLong(1), rs.getString(2));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardedMemberRepository shardedMemberRepository;
+    private final boolean backfill;
+
+    public MemberShardSync(JdbcTemplate jdbcTemplate,
+                           ShardedMemberRepository shardedMemberRepository,
+                           ObjectProvider<ChangeFeedPoller> changeFeedPoller,
+                           @Value("${sharding.sync.backfill:true}") boolean backfill) {
+        if (changeFeedPoller.getIfAvailable() == null) {
+            throw new IllegalStateException("샤드 동기화는 변경 피드가 필요합니다. (change-feed.enabled=true)");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardedMemberRepository = shardedMemberRepository;
+        this.backfill = backfill;
+    }
+
+    /**
+     * 전체 복사 (시작 시)
+     *     - 샤드를 비운 후 복사한다. (기본 DB 는 시작할 때마다 다시 만들어지므로, 샤드에 남은 예전 행을 지움)
+     *     - id 기준 keyset 방식으로 CHUNK_SIZE 건씩 읽어서 샤드마다 JDBC batch 로 저장한다.
+     *     - 변경 피드 반영과 동시에 실행되지 않는다. (synchronized, 복사 중에 바뀐 행은 이후 변경 피드로 반영)
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        if (!backfill) {
+            return;
+        }
+        WorkloadContext.run(Workload.BACKGROUND, () -> {
+            shardedMemberRepository.truncate();
+            long teams = copy(TEAMS_AFTER, TEAM_ROW_MAPPER, TeamDto::getTeamId, shardedMemberRepository::saveTeams);
+            long members = copy(MEMBERS_AFTER, MEMBER_ROW_MAPPER, MemberTeamDto::getMemberId,
+                    shardedMemberRepository::copyMembers);
+            log.info("member shards backfilled. teams={}, members={}", teams, members);
+        });
+    }
+
+    /**
+     * 변경 피드 반영
+     *     - 팀을 먼저 반영한다. (회원 조회 시 팀 조인)
+     * */
+    @Override
+    public synchronized void onChanges(List<ChangeEvent> events) {
+        Set<Long> memberIds = new LinkedHashSet<>();
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (ChangeEvent event : events) {
+            if ("Member".equals(event.getEntityType())) {
+                memberIds.add(event.getEntityId());
+            } else if ("Team".equals(event.getEntityType())) {
+                teamIds.add(event.getEntityId());
+            }
+        }
+
+        List<TeamDto> teams = load(TEAMS_BY_IDS, teamIds, TEAM_ROW_MAPPER);
+        shardedMemberRepository.saveTeams(teams);
+        shardedMemberRepository.deleteTeams(removed(teamIds, teams, TeamDto::getTeamId));
+
+        List<MemberTeamDto> members = load(MEMBERS_BY_IDS, memberIds, MEMBER_ROW_MAPPER);
+        shardedMemberRepository.saveMembers(members);
+        shardedMemberRepository.deleteMembers(removed(memberIds, members, MemberTeamDto::getMemberId));
+    }
+
+    // 기본 DB 에서 현재 값 조회 (없으면 삭제된 것)
+    private <T> List<T> load(String selectIn, Set<Long> ids, RowMapper<T> rowMapper) {
+        List<T> rows = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return rows;
+        }
+        for (List<Long> chunk : InClauseChunks.padded(new ArrayList<>(ids), CHUNK_SIZE)) {
+            String sql = selectIn + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            rows.addAll(jdbcTemplate.query(sql, rowMapper, chunk.toArray()));
+        }
+        return rows;
+    }
+
+    // 기본 DB 에 없는 id (삭제 대상)
+    private static <T> Set<Long> removed(Set<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Set<Long> removed = new LinkedHashSet<>(ids);
+        rows.forEach(row -> removed.remove(idOf.apply(row)));
+        return removed;
+    }
+
+    private <T> long copy(String selectAfter, RowMapper<T> rowMapper, Function<T, Long> idOf, Consumer<List<T>> save) {
+        long count = 0;
+        long lastId = 0L;
+        while (true) {
+            List<T> chunk = jdbcTemplate.query(selectAfter, rowMapper, lastId, CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                return count;
+            }
+            save.accept(chunk);
+            count += chunk.size();
+            lastId = idOf.apply(chunk.get(chunk.size() - 1));
+        }
+    }
+}
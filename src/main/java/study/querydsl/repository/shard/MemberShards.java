@@ -0,0 +1,137 @@
+package study.querydsl.repository.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.QueryGovernor;
+import study.querydsl.workload.WorkloadContext;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <회원 샤드 목록>
+ *     - sharding.urls 의 DB 마다 커넥션 풀을 만든다. (스프링 기본 DataSource 와는 별개, 빈으로 등록하지 않음)
+ *     - 회원은 팀 ID 로 샤드를 정한다 : floorMod(teamId, 샤드 수), 팀이 없으면 0번 샤드
+ *     - 팀은 모든 샤드에 복제한다. (팀 조인/팀명 조회를 샤드 안에서 처리)
+ *     - 시작 시 샤드마다 테이블이 없으면 만든다.
+ *     - 여러 샤드 조회 : 첫 샤드는 호출한 스레드에서, 나머지는 조회 스레드(sharding.query-threads)에서 실행한다.
+ *       : 조회 스레드에는 호출한 스레드의 작업 종류/쿼리 제한(WorkloadContext, QueryGovernor)을 넘긴다.
+ *
+ *     - 기본값은 꺼짐 : sharding.enabled=true 로 켠다.
+ * */
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class MemberShards {
+
+    private static final String[] SCHEMA = {
+            "create table if not exists team (team_id bigint primary key, name varchar(255))",
+            "create table if not exists member (member_id bigint primary key, username varchar(255)," +
+                    " age integer not null, team_id bigint)",
+            "create index if not exists member_team_id_idx on member (team_id)",
+    };
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final ExecutorService executor;
+
+    public MemberShards(@Value("${sharding.urls}") List<String> urls,
+                        @Value("${sharding.username:sa}") String username,
+                        @Value("${sharding.password:}") String password,
+                        @Value("${sharding.query-threads:16}") int queryThreads,
+                        QueryGovernor queryGovernor) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("sharding.urls 가 비어 있습니다.");
+        }
+        for (String url : urls) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("member-shard-" + shards.size());
+            dataSources.add(dataSource);
+
+            JdbcTemplate jdbcTemplate = queryGovernor.jdbcTemplate(dataSource);
+            for (String ddl : SCHEMA) {
+                jdbcTemplate.execute(ddl);
+            }
+            shards.add(jdbcTemplate);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "member-shard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public JdbcTemplate shard(int index) {
+        return shards.get(index);
+    }
+
+    // 회원이 저장될 샤드
+    public int shardOf(Long teamId) {
+        return teamId == null ? 0 : (int) Math.floorMod(teamId, (long) shards.size());
+    }
+
+    /**
+     * 여러 샤드에 동시에 실행 (scatter)
+     *     - 결과는 shardIndexes 순서대로 돌려준다.
+     *     - 첫 샤드는 호출한 스레드에서 실행한다. (조회 스레드가 모두 바빠도 요청마다 한 샤드씩은 진행됨)
+     * */
+    public <T> List<T> scatter(List<Integer> shardIndexes, Function<JdbcTemplate, T> work) {
+        List<T> results = new ArrayList<>(shardIndexes.size());
+        if (shardIndexes.isEmpty()) {
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shardIndexes.size() - 1);
+        for (Integer index : shardIndexes.subList(1, shardIndexes.size())) {
+            JdbcTemplate shard = shard(index);
+            futures.add(executor.submit(WorkloadContext.wrap(QueryGovernor.wrap(() -> work.apply(shard)))));
+        }
+        try {
+            results.add(work.apply(shard(shardIndexes.get(0))));
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("샤드 조회에 실패했습니다.", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("샤드 조회가 중단되었습니다.", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
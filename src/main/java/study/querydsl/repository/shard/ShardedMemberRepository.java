@@ -0,0 +1,294 @@
+package study.querydsl.repository.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamDto;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.repository.MemberSearchSql;
+import study.querydsl.repository.support.QueryGovernor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static study.querydsl.repository.MemberJdbcRepository.*;
+
+/**
+ * <샤딩 회원 리포지토리>
+ *     - MemberRepositoryCustom 과 같은 API 를 여러 샤드(MemberShards) 위에서 제공한다.
+ *     - 팀명 조건이 있으면 : 해당 팀이 있는 샤드에만 보낸다. (팀 1개면 샤드 1개)
+ *     - 팀명 조건이 없으면 : 모든 샤드에 동시에 보내고(scatter), 정렬된 결과를 k-way 병합한다. (gather)
+ *       : 샤드마다 offset + size 건을 가져와서 병합 후 offset 만큼 건너뛴다. (뒤 페이지일수록 비쌈)
+ *     - 전체 건수 : 샤드별 건수의 합
+ *     - 목록은 최대 행 수로 자르고, 페이지는 크기/offset 을 먼저 검사한다. (QueryGovernor, 깊은 offset 은 샤드마다 비쌈)
+ *
+ *     - 저장 : 팀은 모든 샤드에, 회원은 팀 샤드에만 저장한다. (샤드마다 JDBC batch, 샤드 간 트랜잭션은 없음)
+ *       : 기본 DB 의 변경은 MemberShardSync 가 변경 피드로 옮긴다.
+ *     - sharding.enabled=true 이면 MemberRepositoryImpl 의 검색이 이 리포지토리로 간다.
+ * */
+@Repository
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedMemberRepository implements MemberRepositoryCustom {
+
+    private static final String TEAM_IDS_BY_NAME = "select team_id from team where name = ? order by team_id";
+    private static final String MERGE_TEAM = "merge into team (team_id, name) key (team_id) values (?, ?)";
+    private static final String MERGE_MEMBER =
+            "merge into member (member_id, username, age, team_id) key (member_id) values (?, ?, ?, ?)";
+    private static final String DELETE_MEMBER = "delete from member where member_id = ?";
+    private static final String DELETE_TEAM = "delete from team where team_id = ?";
+
+    private final MemberShards shards;
+    private final QueryGovernor queryGovernor;
+
+    public ShardedMemberRepository(MemberShards shards, QueryGovernor queryGovernor) {
+        this.shards = shards;
+        this.queryGovernor = queryGovernor;
+    }
+
+    /**
+     * 팀 저장 (모든 샤드에 복제)
+     * */
+    public void saveTeam(Long teamId, String name) {
+        saveTeams(List.of(new TeamDto(teamId, name)));
+    }
+
+    /**
+     * 회원 저장 (팀 샤드에 저장, 팀이 바뀌었으면 다른 샤드에서는 삭제)
+     * */
+    public void saveMember(Long memberId, String username, int age, Long teamId) {
+        saveMembers(List.of(new MemberTeamDto(memberId, username, age, teamId, null)));
+    }
+
+    /**
+     * 팀 여러 건 저장 (모든 샤드에 복제, 샤드마다 JDBC batch)
+     * */
+    public void saveTeams(List<TeamDto> teams) {
+        if (teams.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = teams.stream()
+                .map(team -> new Object[]{team.getTeamId(), team.getName()})
+                .collect(Collectors.toList());
+        for (int i = 0; i < shards.size(); i++) {
+            shards.shard(i).batchUpdate(MERGE_TEAM, args);
+        }
+    }
+
+    /**
+     * 회원 여러 건 저장 (샤드마다 JDBC batch)
+     *     - 팀이 바뀌었을 수 있으므로 다른 샤드에서는 삭제한다.
+     * */
+    public void saveMembers(List<MemberTeamDto> members) {
+        saveMembers(members, true);
+    }
+
+    /**
+     * 회원 여러 건 복사 (비운 샤드에 옮길 때, 다른 샤드에서 삭제하지 않음)
+     * */
+    public void copyMembers(List<MemberTeamDto> members) {
+        saveMembers(members, false);
+    }
+
+    /**
+     * 회원 삭제 (모든 샤드에서)
+     * */
+    public void deleteMember(Long memberId) {
+        deleteMembers(List.of(memberId));
+    }
+
+    /**
+     * 회원 여러 건 삭제 (모든 샤드에서, 샤드마다 JDBC batch)
+     * */
+    public void deleteMembers(Collection<Long> memberIds) {
+        deleteAll(DELETE_MEMBER, memberIds);
+    }
+
+    /**
+     * 팀 삭제 (모든 샤드에서)
+     * */
+    public void deleteTeam(Long teamId) {
+        deleteTeams(List.of(teamId));
+    }
+
+    /**
+     * 팀 여러 건 삭제 (모든 샤드에서, 샤드마다 JDBC batch)
+     * */
+    public void deleteTeams(Collection<Long> teamIds) {
+        deleteAll(DELETE_TEAM, teamIds);
+    }
+
+    /**
+     * 모든 샤드 비우기 (전체 복사 전)
+     * */
+    public void truncate() {
+        for (int i = 0; i < shards.size(); i++) {
+            shards.shard(i).execute("truncate table member");
+            shards.shard(i).execute("truncate table team");
+        }
+    }
+
+    private void saveMembers(List<MemberTeamDto> members, boolean deleteElsewhere) {
+        List<List<Object[]>> merges = perShard();
+        List<List<Object[]>> deletes = perShard();
+        for (MemberTeamDto member : members) {
+            int target = shards.shardOf(member.getTeamId());
+            merges.get(target).add(new Object[]{member.getMemberId(), member.getUsername(), member.getAge(), member.getTeamId()});
+            for (int i = 0; deleteElsewhere && i < shards.size(); i++) {
+                if (i != target) {
+                    deletes.get(i).add(new Object[]{member.getMemberId()});
+                }
+            }
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            if (!merges.get(i).isEmpty()) {
+                shards.shard(i).batchUpdate(MERGE_MEMBER, merges.get(i));
+            }
+            if (!deletes.get(i).isEmpty()) {
+                shards.shard(i).batchUpdate(DELETE_MEMBER, deletes.get(i));
+            }
+        }
+    }
+
+    private void deleteAll(String deleteSql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = ids.stream().map(id -> new Object[]{id}).collect(Collectors.toList());
+        for (int i = 0; i < shards.size(); i++) {
+            shards.shard(i).batchUpdate(deleteSql, args);
+        }
+    }
+
+    private List<List<Object[]>> perShard() {
+        List<List<Object[]>> lists = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchSql where = where(condition);
+        int limit = queryGovernor.maxRows() + 1;
+        List<List<MemberTeamDto>> parts = shards.scatter(route(where), shard ->
+                shard.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy(Sort.unsorted()) + " limit ?",
+                        MEMBER_TEAM_ROW_MAPPER, where.argsWith(limit)));
+        return queryGovernor.cap(merge(parts, comparator(Sort.unsorted()), 0, limit));
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageComplex(condition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        queryGovernor.checkPage(pageable);
+        MemberSearchSql where = where(condition);
+        List<Integer> route = route(where);
+        return new PageImpl<>(content(where, route, pageable), pageable, count(where, route));
+    }
+
+    /**
+     * 마지막 페이지를 알 수 있으면 건수 조회를 생략한다.
+     * */
+    @Override
+    public Page<MemberTeamDto> searchPageCount(MemberSearchCondition condition, Pageable pageable) {
+        queryGovernor.checkPage(pageable);
+        MemberSearchSql where = where(condition);
+        List<Integer> route = route(where);
+        return PageableExecutionUtils.getPage(content(where, route, pageable), pageable, () -> count(where, route));
+    }
+
+    private List<MemberTeamDto> content(MemberSearchSql where, List<Integer> route, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<List<MemberTeamDto>> parts = shards.scatter(route, shard ->
+                    shard.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy(pageable.getSort()),
+                            MEMBER_TEAM_ROW_MAPPER, where.argsWith()));
+            return merge(parts, comparator(pageable.getSort()), 0, Integer.MAX_VALUE);
+        }
+
+        String orderBy = orderBy(pageable.getSort());
+        long perShardLimit = pageable.getOffset() + pageable.getPageSize();
+        List<List<MemberTeamDto>> parts = shards.scatter(route, shard ->
+                shard.query(SELECT_MEMBER_TEAM + where.getWhere() + orderBy + " limit ?",
+                        MEMBER_TEAM_ROW_MAPPER, where.argsWith(perShardLimit)));
+        return merge(parts, comparator(pageable.getSort()), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private long count(MemberSearchSql where, List<Integer> route) {
+        Function<JdbcTemplate, Long> count = shard -> shard.queryForObject(
+                "select count(*) from member m" + where.getWhere(), Long.class, where.argsWith());
+        return shards.scatter(route, count).stream()
+                .mapToLong(shardCount -> shardCount == null ? 0L : shardCount)
+                .sum();
+    }
+
+    // 팀은 모든 샤드에 복제되어 있으므로 0번 샤드에서 팀 ID 를 찾는다.
+    private MemberSearchSql where(MemberSearchCondition condition) {
+        return MemberSearchSql.of(condition, teamName ->
+                shards.shard(0).queryForList(TEAM_IDS_BY_NAME, Long.class, teamName));
+    }
+
+    /**
+     * 조회할 샤드 목록
+     *     - 팀명 조건이 있으면 해당 팀 ID 의 샤드만 (없는 팀이면 빈 목록)
+     * */
+    private List<Integer> route(MemberSearchSql where) {
+        if (where.getTeamIds() == null) {
+            return IntStream.range(0, shards.size()).boxed().collect(Collectors.toList());
+        }
+        TreeSet<Integer> route = new TreeSet<>();
+        for (Long teamId : where.getTeamIds()) {
+            route.add(shards.shardOf(teamId));
+        }
+        return new ArrayList<>(route);
+    }
+
+    /**
+     * 정렬된 샤드 결과들을 k-way 병합
+     *     - 우선순위 큐에 샤드별 현재 위치를 넣고 가장 앞선 행부터 꺼낸다.
+     *     - skip 건을 건너뛴 후 limit 건만 돌려준다.
+     * */
+    static List<MemberTeamDto> merge(List<List<MemberTeamDto>> parts, Comparator<MemberTeamDto> comparator,
+                                     long skip, int limit) {
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(parts.size(), 1),
+                (a, b) -> comparator.compare(parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1])));
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) {
+                cursors.add(new int[]{i, 0});
+            }
+        }
+
+        List<MemberTeamDto> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!cursors.isEmpty() && merged.size() < limit) {
+            int[] cursor = cursors.poll();
+            List<MemberTeamDto> part = parts.get(cursor[0]);
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(part.get(cursor[1]));
+            }
+            if (cursor[1] + 1 < part.size()) {
+                cursors.add(new int[]{cursor[0], cursor[1] + 1});
+            }
+        }
+        return merged;
+    }
+}
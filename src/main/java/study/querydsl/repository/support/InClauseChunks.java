@@ -0,0 +1,66 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.SimpleExpression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * IN 절 파라미터 분할 & 패딩 유틸리티
+ *
+ *     - IN 절 파라미터 개수가 바뀔 때마다 SQL 문장이 달라져서 쿼리 플랜 캐시, 문장 캐시가 커진다.
+ *     - 목록을 chunkSize 단위로 나누고, 마지막 조각은 2의 제곱 크기까지 마지막 값을 반복해서 채운다.
+ *     - 결과적으로 SQL 모양은 log2(chunkSize) + 1 가지로 제한된다.
+ *     - 반복된 값은 IN 절 결과에 영향을 주지 않는다.
+ */
+public final class InClauseChunks {
+
+    private InClauseChunks() {
+    }
+
+    public static <T> List<List<T>> padded(List<T> values, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            List<T> chunk = new ArrayList<>(values.subList(from, Math.min(from + chunkSize, values.size())));
+            int paddedSize = Math.min(chunkSize, nextPowerOfTwo(chunk.size()));
+            T last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < paddedSize) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 값이 많은 IN 조건
+     *     - chunkSize 단위로 나눈 IN 조건을 OR 로 묶는다. (path in (...) or path in (...))
+     *     - 값이 1개면 = 조건, 없으면 null (조건 무시)
+     */
+    public static <T> BooleanExpression in(SimpleExpression<T> path, List<T> values, int chunkSize) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        if (values.size() == 1) {
+            return path.eq(values.get(0));
+        }
+        BooleanExpression in = null;
+        for (List<T> chunk : padded(values, chunkSize)) {
+            in = in == null ? path.in(chunk) : in.or(path.in(chunk));
+        }
+        return in;
+    }
+
+    private static int nextPowerOfTwo(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+}
@@ -0,0 +1,251 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <쿼리 제한 (query governor)>
+ *     - 타임아웃 : JPA 쿼리는 org.hibernate.timeout 힌트, JDBC 는 Statement.setQueryTimeout (초 단위, 올림)
+ *     - 목록 조회 : maxRows + 1 건까지만 조회하고, 넘으면 maxRows 건으로 잘라낸 후 표시한다. (X-Result-Truncated)
+ *     - 페이지 조회 : 페이지 크기가 maxRows 를 넘거나 offset 이 maxOffset 을 넘으면 거절한다. (QueryRejectedException, 400)
+ *       : 깊은 offset 은 앞 행을 모두 읽고 버리므로, 뒤 페이지는 조건/정렬로 좁혀서 조회하도록 한다.
+ *     - 값은 엔드포인트별(@QueryLimit)로 바꿀 수 있고, 없으면 기본값(query-governor.*)을 사용한다.
+ *       : 요청 스레드의 ThreadLocal 에 보관하므로, 다른 스레드(배치 실행기, 샤드 조회 등)에서 실행할 작업은 wrap() 으로 감싼다.
+ *     - 거절/잘라냄은 QueryGovernorListener 빈에 알리고, 사유별 건수를 센다.
+ * */
+@Component
+public class QueryGovernor {
+
+    public static final String REASON_OFFSET = "offset";
+    public static final String REASON_PAGE_SIZE = "page-size";
+
+    private static final ThreadLocal<Limits> CURRENT = new ThreadLocal<>();
+
+    private final long defaultTimeoutMs;
+    private final int defaultMaxRows;
+    private final long maxOffset;
+    private final ObjectProvider<QueryGovernorListener> listeners;
+
+    private final ConcurrentMap<String, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LongAdder truncations = new LongAdder();
+
+    public QueryGovernor(@Value("${query-governor.timeout-ms:3000}") long defaultTimeoutMs,
+                         @Value("${query-governor.max-rows:1000}") int defaultMaxRows,
+                         @Value("${query-governor.max-offset:10000}") long maxOffset,
+                         ObjectProvider<QueryGovernorListener> listeners) {
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.defaultMaxRows = defaultMaxRows;
+        this.maxOffset = maxOffset;
+        this.listeners = listeners;
+    }
+
+    /**
+     * 요청 시작 : 현재 스레드에 제한 값 설정 (0 이하면 기본값)
+     * */
+    public void enter(long timeoutMs, int maxRows) {
+        CURRENT.set(new Limits(timeoutMs > 0 ? timeoutMs : defaultTimeoutMs,
+                maxRows > 0 ? maxRows : defaultMaxRows));
+    }
+
+    /**
+     * 요청 종료 : 현재 스레드의 제한 값 제거
+     * */
+    public void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 지금 스레드의 제한 값으로 실행하도록 감싸기 (WorkloadContext.wrap 과 같은 방식)
+     *     - 같은 제한 값을 공유하므로, 다른 스레드에서 잘라낸 것도 요청 스레드의 isTruncated() 에 보인다.
+     * */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Limits limits = CURRENT.get();
+        return () -> {
+            Limits previous = CURRENT.get();
+            set(limits);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 잘라냄을 따로 확인하도록 감싸기
+     *     - 지금 스레드의 제한 값(타임아웃, 최대 행 수)으로 실행하되, 잘라냄 표시는 새로 시작한다. (작업 안에서 isTruncated() 로 확인)
+     *     - 잘라냈으면 감싼 스레드의 요청에도 표시한다. (X-Result-Truncated)
+     *     - 일괄 검색처럼 결과마다 잘라냈는지 알려야 할 때 사용한다.
+     * */
+    public <T> Callable<T> wrapTracked(Callable<T> task) {
+        Limits parent = CURRENT.get();
+        long timeoutMs = timeoutMs();
+        int maxRows = maxRows();
+        return () -> {
+            Limits previous = CURRENT.get();
+            Limits limits = new Limits(timeoutMs, maxRows);
+            CURRENT.set(limits);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+                if (limits.truncated && parent != null) {
+                    parent.truncated = true;
+                }
+            }
+        };
+    }
+
+    private static void set(Limits limits) {
+        if (limits == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(limits);
+        }
+    }
+
+    public long timeoutMs() {
+        Limits limits = CURRENT.get();
+        return limits == null ? defaultTimeoutMs : limits.timeoutMs;
+    }
+
+    public int maxRows() {
+        Limits limits = CURRENT.get();
+        return limits == null ? defaultMaxRows : limits.maxRows;
+    }
+
+    // JDBC 타임아웃은 초 단위이므로 올림한다. (0 이면 타임아웃 없음)
+    public int timeoutSeconds() {
+        long timeoutMs = timeoutMs();
+        return timeoutMs <= 0 ? 0 : (int) Math.max(1L, (timeoutMs + 999L) / 1000L);
+    }
+
+    /**
+     * 현재 요청에서 목록 결과를 잘라냈는지 여부
+     * */
+    public boolean isTruncated() {
+        Limits limits = CURRENT.get();
+        return limits != null && limits.truncated;
+    }
+
+    /**
+     * JPA 쿼리 타임아웃
+     *     - javax.persistence.query.timeout(ms) 은 하이버네이트가 초로 바꿀 때 버림하므로 org.hibernate.timeout(초)을 사용한다.
+     * */
+    public <T> JPAQuery<T> withTimeout(JPAQuery<T> query) {
+        int timeoutSeconds = timeoutSeconds();
+        return timeoutSeconds > 0 ? query.setHint(QueryHints.HINT_TIMEOUT, timeoutSeconds) : query;
+    }
+
+    /**
+     * 페이지 검사 : 페이지 크기, offset
+     * */
+    public void checkPage(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return;
+        }
+        int maxRows = maxRows();
+        if (pageable.getPageSize() > maxRows) {
+            reject(REASON_PAGE_SIZE, "페이지 크기가 너무 큽니다. size=" + pageable.getPageSize() + ", max=" + maxRows);
+        }
+        if (pageable.getOffset() > maxOffset) {
+            reject(REASON_OFFSET, "offset 이 너무 큽니다. offset=" + pageable.getOffset() + ", max=" + maxOffset
+                    + " (조건이나 정렬로 범위를 좁혀서 조회하세요.)");
+        }
+    }
+
+    /**
+     * 목록 조회 (타임아웃 + 최대 행 수)
+     *     - 잘렸는지 알기 위해 maxRows + 1 건을 조회한다.
+     * */
+    public <T> List<T> fetchCapped(JPAQuery<T> query) {
+        int maxRows = maxRows();
+        return cap(withTimeout(query).limit(maxRows + 1L).fetch(), maxRows);
+    }
+
+    /**
+     * 목록 결과 자르기 (maxRows + 1 건까지 조회한 결과)
+     * */
+    public <T> List<T> cap(List<T> rows) {
+        return cap(rows, maxRows());
+    }
+
+    private <T> List<T> cap(List<T> rows, int maxRows) {
+        if (rows.size() <= maxRows) {
+            return rows;
+        }
+        Limits limits = CURRENT.get();
+        if (limits != null) {
+            limits.truncated = true;
+        }
+        truncations.increment();
+        listeners.orderedStream().forEach(listener -> listener.onTruncated(maxRows));
+        return new ArrayList<>(rows.subList(0, maxRows));
+    }
+
+    /**
+     * 쿼리 타임아웃을 적용하는 JdbcTemplate
+     *     - 트랜잭션 타임아웃이 더 짧으면 그 값을 그대로 둔다.
+     * */
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource) {
+            @Override
+            protected void applyStatementSettings(Statement stmt) throws SQLException {
+                super.applyStatementSettings(stmt);
+                int timeoutSeconds = timeoutSeconds();
+                int current = stmt.getQueryTimeout();
+                if (timeoutSeconds > 0 && (current == 0 || timeoutSeconds < current)) {
+                    stmt.setQueryTimeout(timeoutSeconds);
+                }
+            }
+        };
+    }
+
+    /**
+     * 사유별 거절 건수
+     * */
+    public Map<String, Long> rejections() {
+        Map<String, Long> counts = new TreeMap<>();
+        rejections.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+
+    public long truncations() {
+        return truncations.sum();
+    }
+
+    private void reject(String reason, String message) {
+        rejections.computeIfAbsent(reason, key -> new LongAdder()).increment();
+        listeners.orderedStream().forEach(listener -> listener.onRejected(reason, message));
+        throw new QueryRejectedException(reason, message);
+    }
+
+    private static final class Limits {
+
+        private final long timeoutMs;
+        private final int maxRows;
+        private volatile boolean truncated;
+
+        private Limits(long timeoutMs, int maxRows) {
+            this.timeoutMs = timeoutMs;
+            this.maxRows = maxRows;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.repository.support;
+
+/**
+ * <쿼리 제한 이벤트 리스너>
+ *     - 메트릭 수집용 : 빈으로 등록하면 QueryGovernor 가 호출한다. (여러개 가능)
+ *     - 요청 스레드에서 바로 호출되므로 오래 걸리는 작업은 하지 않는다.
+ * */
+public interface QueryGovernorListener {
+
+    /**
+     * 쿼리 거절 (reason : QueryGovernor.REASON_*)
+     * */
+    void onRejected(String reason, String message);
+
+    /**
+     * 목록 결과를 maxRows 건으로 잘라냄
+     * */
+    default void onTruncated(int maxRows) {
+    }
+}
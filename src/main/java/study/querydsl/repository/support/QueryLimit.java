@@ -0,0 +1,24 @@
+package study.querydsl.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <엔드포인트별 쿼리 제한>
+ *     - 컨트롤러 메소드에 붙이면 요청 동안 QueryGovernor 가 이 값을 사용한다. (QueryLimitInterceptor)
+ *     - 0 이하이면 기본값(query-governor.*)을 사용한다.
+ * */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryLimit {
+
+    // JDBC 쿼리 타임아웃 (ms, 초 단위로 올림)
+    long timeoutMs() default 0;
+
+    // 목록 조회 최대 행 수 / 최대 페이지 크기
+    int maxRows() default 0;
+}
@@ -0,0 +1,22 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * <쿼리 거절>
+ *     - QueryGovernor 가 실행하기 전에 거절한 쿼리 (너무 깊은 offset, 너무 큰 페이지 등)
+ *     - 웹 요청에서는 400 으로 응답한다.
+ * */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class QueryRejectedException extends RuntimeException {
+
+    private final String reason;    // QueryGovernor.REASON_*
+
+    public QueryRejectedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
@@ -5,6 +5,7 @@ import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,11 +15,21 @@ import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 
@@ -35,6 +46,7 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private QueryGovernor queryGovernor;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -54,11 +66,18 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired
+    public void setQueryGovernor(QueryGovernor queryGovernor) {
+        Assert.notNull(queryGovernor, "QueryGovernor must not be null!");
+        this.queryGovernor = queryGovernor;
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(queryGovernor, "QueryGovernor must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -73,6 +92,10 @@ public abstract class Querydsl4RepositorySupport {
         return entityManager;
     }
 
+    protected QueryGovernor getQueryGovernor() {
+        return queryGovernor;
+    }
+
     protected <T> JPAQuery<T> select(Expression<T> expr) {
         return getQueryFactory().select(expr);
     }
@@ -81,25 +104,131 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * 읽기 전용 쿼리
+     *     - org.hibernate.readOnly : 조회한 엔티티의 스냅샷을 만들지 않고, 변경 감지(flush) 대상에서 제외한다.
+     *     - FlushMode.MANUAL, 읽기 전용 커넥션은 @Transactional(readOnly = true) 트랜잭션이 적용한다.
+     *       (쓰기 트랜잭션 안에서 호출되면 아직 flush 하지 않은 변경도 조회되도록 flush 모드는 건드리지 않는다.)
+     *     - 페이징 메소드(applyPagination...)의 컨텐츠 쿼리에는 읽기 전용 트랜잭션일 때만 자동으로 적용된다.
+     *       (쓰기 트랜잭션에서 조회한 엔티티를 수정하면 변경 감지가 되어야 하므로, 그 외에는 직접 readOnly() 로 감싼다.)
+     *     - 쿼리 타임아웃(QueryGovernor)도 같이 적용한다.
+     */
+    protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return queryGovernor.withTimeout(query.setHint(QueryHints.HINT_READONLY, true));
+    }
+
+    // 페이징 컨텐츠 쿼리 : 읽기 전용 트랜잭션이면 readOnly, 아니면 타임아웃만
+    private <T> JPAQuery<T> pageContent(JPAQuery<T> query) {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? readOnly(query)
+                : queryGovernor.withTimeout(query);
+    }
+
+    /**
+     * 페이징
+     *     - 페이지 크기, offset 은 QueryGovernor 가 먼저 검사한다. (넘으면 QueryRejectedException)
+     */
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
-        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        queryGovernor.checkPage(pageable);
+        JPAQuery jpaQuery = pageContent(contentQuery.apply(getQueryFactory()));
         List<T> content = getQuerydsl().applyPagination(pageable,
                 jpaQuery).fetch();
 
         return PageableExecutionUtils.getPage(content, pageable,
-                jpaQuery::fetchCount);
+                () -> fetchCount(jpaQuery));
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
             JPAQuery> countQuery) {
-        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        queryGovernor.checkPage(pageable);
+        JPAQuery jpaContentQuery = pageContent(contentQuery.apply(getQueryFactory()));
         List<T> content = getQuerydsl().applyPagination(pageable,
                 jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        JPAQuery countResult = queryGovernor.withTimeout(countQuery.apply(getQueryFactory()));
 
         return PageableExecutionUtils.getPage(content, pageable,
-                countResult::fetchCount);
+                () -> fetchCount(countResult));
+    }
+
+    /**
+     * 요청 기반 fetch plan (엔티티 그래프)
+     *     - 클라이언트가 요청한 연관관계(expand=team 등)만 엔티티 그래프(loadgraph)로 한번에 조회한다.
+     *     - 요청하지 않은 연관관계는 매핑 설정(LAZY)을 따른다.
+     *     - to-one 연관관계만 허용한다. (컬렉션은 메모리 페이징이 되므로 applyPaginationByIds 를 사용할 것)
+     *     - 없는 속성이나 컬렉션을 요청하면 IllegalArgumentException
+     */
+    protected <T> JPAQuery<T> withFetchGraph(JPAQuery<T> query, Collection<String> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return query;
+        }
+
+        EntityType<?> entityType = getEntityManager().getMetamodel().entity(domainClass);
+        EntityGraph<?> graph = getEntityManager().createEntityGraph(domainClass);
+        for (String name : attributes) {
+            Attribute<?, ?> attribute = entityType.getAttribute(name);
+            if (attribute.isCollection() || !attribute.isAssociation()) {
+                throw new IllegalArgumentException("expand 할 수 없는 속성입니다: " + name);
+            }
+            graph.addAttributeNodes(name);
+        }
+        return query.setHint(QueryHints.HINT_LOADGRAPH, graph);
+    }
+
+    /**
+     * 2단계 페이징 (id 페이징 → 엔티티 조회)
+     *     - 1단계 : id만 페이징 한다. (좁은 쿼리, 인덱스만으로 처리 가능)
+     *     - 2단계 : 찾은 id 목록으로 fetch join, 엔티티 그래프를 사용해서 한번에 조회한다.
+     *     - 컬렉션 fetch join 을 페이징하면 메모리에서 페이징(HHH000104)하므로, 그 대안으로 사용한다.
+     *     - 2단계 결과는 1단계 id 순서대로 정렬하고, 컬렉션 fetch join 으로 생긴 중복은 제거한다.
+     */
+    protected <T, ID> Page<T> applyPaginationByIds(Pageable pageable,
+                                                   Function<JPAQueryFactory, JPAQuery<ID>> idQuery,
+                                                   BiFunction<JPAQueryFactory, List<ID>, List<T>> contentQuery,
+                                                   Function<T, ID> idMapper) {
+        queryGovernor.checkPage(pageable);
+        JPAQuery<ID> jpaIdQuery = queryGovernor.withTimeout(idQuery.apply(getQueryFactory()));
+        List<ID> ids = getQuerydsl().applyPagination(pageable, jpaIdQuery).fetch();
+
+        List<T> content = ids.isEmpty()
+                ? Collections.emptyList()
+                : orderByIds(ids, contentQuery.apply(getQueryFactory(), ids), idMapper);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> fetchCount(jpaIdQuery));
+    }
+
+    /**
+     * 카운트 쿼리 자동 생성
+     *     - orderBy 제거, 조건에서 사용하지 않는 left join / fetch join 제거, id 기준 count
+     *     - 자세한 규칙은 QuerydslCountQuery 참고
+     */
+    protected JPAQuery<Long> countQuery(JPAQuery<?> contentQuery) {
+        return queryGovernor.withTimeout(QuerydslCountQuery.derive(getEntityManager(), contentQuery));
+    }
+
+    protected long fetchCount(JPAQuery<?> contentQuery) {
+        if (QuerydslCountQuery.requiresContentCount(contentQuery)) {
+            return QuerydslCountQuery.fetchCount(getEntityManager(), queryGovernor.withTimeout(contentQuery));
+        }
+        Long count = countQuery(contentQuery).fetchOne();
+        return count == null ? 0L : count;
+    }
+
+    private <T, ID> List<T> orderByIds(List<ID> ids, List<T> rows, Function<T, ID> idMapper) {
+        Map<ID, T> byId = new LinkedHashMap<>();
+        for (T row : rows) {
+            byId.putIfAbsent(idMapper.apply(row), row);
+        }
+
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (ID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 컨텐츠 쿼리에서 카운트 쿼리를 자동으로 만들어 주는 유틸리티
+ *
+ *     - orderBy, offset, limit 는 버린다.
+ *     - 조건(where, group by, having, 다른 조인)에서 참조하지 않는 to-one left join 은 버린다.
+ *     - fetch join 은 일반 조인으로 바꾼다.
+ *       : left fetch join 은 참조하지 않으면 버린다.
+ *       : inner fetch join 은 건수를 줄일 수 있으므로(팀 없는 회원 제외) 일반 inner join 으로 남긴다.
+ *     - select 절은 루트 엔티티의 count (Hibernate 에서는 id count) 로 바꾼다.
+ *
+ *     - group by 가 있는 쿼리는 그룹 건수를 세야 하므로 기존 fetchCount() 로 처리한다.
+ *     - 루트 엔티티가 아닌 값을 select distinct 하는 쿼리(select distinct m.username)도
+ *       값의 건수를 세야 하므로 기존 fetchCount() 로 처리한다.
+ */
+public final class QuerydslCountQuery {
+
+    private QuerydslCountQuery() {
+    }
+
+    /**
+     * 카운트 쿼리 건수 조회
+     */
+    @SuppressWarnings("deprecation")
+    public static long fetchCount(EntityManager entityManager, JPAQuery<?> contentQuery) {
+        if (requiresContentCount(contentQuery)) {
+            return contentQuery.fetchCount();
+        }
+        Long count = derive(entityManager, contentQuery).fetchOne();
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 카운트 쿼리를 만들 수 없어서 컨텐츠 쿼리의 fetchCount() 로 세야 하는지 여부
+     *     - group by 쿼리
+     *     - 루트 엔티티가 아닌 값을 select distinct 하는 쿼리
+     */
+    public static boolean requiresContentCount(JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        if (!source.getGroupBy().isEmpty()) {
+            return true;
+        }
+        if (!source.isDistinct() || source.getProjection() == null || source.getJoins().isEmpty()) {
+            return false;
+        }
+        return !source.getProjection().equals(aliasOf(source.getJoins().get(0).getTarget()));
+    }
+
+    /**
+     * 카운트 쿼리 생성
+     *     - requiresContentCount() 가 true 인 쿼리는 건수가 달라질 수 있으므로 fetchCount() 를 사용한다.
+     */
+    public static JPAQuery<Long> derive(EntityManager entityManager, JPAQuery<?> contentQuery) {
+        QueryMetadata source = contentQuery.getMetadata();
+        List<JoinExpression> joins = source.getJoins();
+
+        // 1. 조건절에서 참조하는 별칭(alias) 수집
+        Set<Path<?>> referenced = new HashSet<>();
+        collect(source.getWhere(), referenced);
+        collect(source.getHaving(), referenced);
+        for (Expression<?> groupBy : source.getGroupBy()) {
+            collect(groupBy, referenced);
+        }
+
+        // 2. 뒤에서부터 조인을 검사한다. (뒤의 조인이 앞의 별칭을 참조할 수 있음)
+        boolean[] keep = new boolean[joins.size()];
+        boolean multiplied = false;
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (i > 0 && isRemovable(join, referenced)) {
+                continue;
+            }
+            keep[i] = true;
+            multiplied |= isToMany(join.getTarget());
+            collect(join.getTarget(), referenced);
+            collect(join.getCondition(), referenced);
+        }
+
+        // 3. 남은 조인과 조건으로 카운트 쿼리 구성
+        DefaultQueryMetadata metadata = new DefaultQueryMetadata().noValidate();
+        for (int i = 0; i < joins.size(); i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            JoinExpression join = joins.get(i);
+            metadata.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                metadata.addJoinCondition(join.getCondition());
+            }
+        }
+        if (source.getWhere() != null) {
+            metadata.addWhere(source.getWhere());
+        }
+        copyParams(source, metadata);
+
+        Expression<?> root = aliasOf(joins.get(0).getTarget());
+        Ops.AggOps countOp = source.isDistinct() || multiplied
+                ? Ops.AggOps.COUNT_DISTINCT_AGG
+                : Ops.AggOps.COUNT_AGG;
+
+        return new JPAQuery<Void>(entityManager, metadata)
+                .select(Expressions.numberOperation(Long.class, countOp, root));
+    }
+
+    private static boolean isRemovable(JoinExpression join, Set<Path<?>> referenced) {
+        Expression<?> alias = aliasOf(join.getTarget());
+        if (referenced.contains(alias)) {
+            return false;
+        }
+        if (join.getType() != JoinType.LEFTJOIN) {
+            return false;
+        }
+        // left fetch join 은 건수에 영향이 없다. (to-many 라도 루트 기준으로 센다)
+        return join.hasFlag(JPAQueryMixin.FETCH) || !isToMany(join.getTarget());
+    }
+
+    private static boolean isToMany(Expression<?> target) {
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            Expression<?> association = ((Operation<?>) target).getArg(0);
+            return association instanceof CollectionExpression || association instanceof MapExpression;
+        }
+        return false;
+    }
+
+    private static Expression<?> aliasOf(Expression<?> target) {
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) target).getArg(1);
+        }
+        return target;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+
+    private static void collect(Expression<?> expression, Set<Path<?>> paths) {
+        if (expression != null) {
+            expression.accept(PathCollector.INSTANCE, paths);
+        }
+    }
+
+    /**
+     * 표현식에서 사용하는 루트 경로(별칭)를 모두 모은다.
+     *     - 서브쿼리가 바깥 쿼리의 별칭을 참조하는 경우도 포함한다.
+     */
+    private static final class PathCollector implements Visitor<Void, Set<Path<?>>> {
+
+        private static final PathCollector INSTANCE = new PathCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> paths) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> paths) {
+            visitAll(expr.getArgs(), paths);
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> paths) {
+            visitAll(expr.getArgs(), paths);
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> paths) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> paths) {
+            paths.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> paths) {
+            QueryMetadata metadata = expr.getMetadata();
+            for (JoinExpression join : metadata.getJoins()) {
+                collect(join.getTarget(), paths);
+                collect(join.getCondition(), paths);
+            }
+            collect(metadata.getProjection(), paths);
+            collect(metadata.getWhere(), paths);
+            collect(metadata.getHaving(), paths);
+            visitAll(metadata.getGroupBy(), paths);
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> paths) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    collect((Expression<?>) arg, paths);
+                }
+            }
+            return null;
+        }
+
+        private void visitAll(List<? extends Expression<?>> expressions, Set<Path<?>> paths) {
+            for (Expression<?> expression : expressions) {
+                collect(expression, paths);
+            }
+        }
+    }
+}
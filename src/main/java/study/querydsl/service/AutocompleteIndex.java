@@ -0,0 +1,260 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.change.ChangeSubscriber;
+import study.querydsl.dto.AutocompleteDto;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.repository.support.InClauseChunks;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadContext;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * <회원명 / 팀명 자동완성 인덱스>
+ *     - 이름(소문자)을 정렬된 맵(ConcurrentSkipListMap)에 보관하고, prefix 범위만 잘라서 조회한다.
+ *       : DB 조회 없음 (like 'abc%' 쿼리 대신)
+ *     - 순위 : 같은 이름을 가진 회원(팀) 수가 많은 순 → 짧은 순 → 사전 순
+ *       : prefix 범위 전체를 순위로 비교하고, 크기 limit 의 힙(min-heap)으로 상위 limit 개만 남긴다.
+ *
+ *     - 시작 시 : 전체 회원/팀 이름으로 한번 만든다. (내부 백그라운드(BACKGROUND) 커넥션 풀)
+ *       : 실패하면 성공할 때까지 autocomplete.rebuild-retry-ms 마다 다시 만든다. (그동안은 변경 피드로 받은 것만 조회됨)
+ *     - 이후 : 변경 피드(ChangeSubscriber)로 바뀐 회원/팀만 다시 읽어서 고친다.
+ *       (같은 이벤트를 여러번 받아도 결과가 같음)
+ * */
+@Slf4j
+@Service
+public class AutocompleteIndex implements ChangeSubscriber {
+
+    public static final String MEMBER = "MEMBER";
+    public static final String TEAM = "TEAM";
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    // 순위가 높은 것이 앞 (회원/팀 수 많은 순 → 짧은 순 → 사전 순)
+    private static final Comparator<AutocompleteDto> RANK = Comparator.comparingInt(AutocompleteDto::getCount).reversed()
+            .thenComparingInt((AutocompleteDto dto) -> dto.getText().length())
+            .thenComparing(AutocompleteDto::getText)
+            .thenComparing(AutocompleteDto::getType);
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long rebuildRetryMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autocomplete-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 이름(소문자) -> 이름별 회원/팀 수 (조회는 잠금 없이, 수정은 synchronized 로 한 스레드만)
+    private volatile ConcurrentSkipListMap<String, Term> terms = new ConcurrentSkipListMap<>();
+    // "MEMBER:1" -> 이름(소문자) : 이름이 바뀌거나 삭제될 때 이전 이름을 빼기 위해서
+    private Map<String, String> termByEntity = new HashMap<>();
+
+    public AutocompleteIndex(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                             @Value("${autocomplete.rebuild-retry-ms:5000}") long rebuildRetryMs) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildRetryMs = rebuildRetryMs;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 자동완성 조회
+     *     - prefix 는 대소문자를 구분하지 않는다.
+     * */
+    public List<AutocompleteDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        NavigableMap<String, Term> range = terms.subMap(key, true, key + Character.MAX_VALUE, true);
+        // 힙의 맨 앞은 지금까지 상위 limit 개 중 순위가 가장 낮은 것
+        PriorityQueue<AutocompleteDto> top = new PriorityQueue<>(Math.min(limit, 64) + 1, RANK.reversed());
+        for (Term term : range.values()) {
+            if (term.members > 0) {
+                offer(top, new AutocompleteDto(term.text, MEMBER, term.members), limit);
+            }
+            if (term.teams > 0) {
+                offer(top, new AutocompleteDto(term.text, TEAM, term.teams), limit);
+            }
+        }
+
+        List<AutocompleteDto> result = new ArrayList<>(top);
+        result.sort(RANK);
+        return result;
+    }
+
+    private static void offer(PriorityQueue<AutocompleteDto> top, AutocompleteDto candidate, int limit) {
+        if (top.size() < limit) {
+            top.add(candidate);
+        } else if (RANK.compare(candidate, top.peek()) < 0) {
+            top.poll();
+            top.add(candidate);
+        }
+    }
+
+    /**
+     * 전체 다시 만들기
+     *     - 새 맵을 만든 후 한번에 바꾸므로, 만드는 동안에도 이전 인덱스로 조회된다.
+     * */
+    public void rebuild() {
+        WorkloadContext.run(Workload.BACKGROUND, this::rebuildIndex);
+    }
+
+    /**
+     * 시작 시 만들기 (실패하면 성공할 때까지 다시 시도)
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStart() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("autocomplete index rebuild failed. retry in {} ms", rebuildRetryMs, e);
+            scheduler.schedule(this::rebuildOnStart, rebuildRetryMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void rebuildIndex() {
+        ConcurrentSkipListMap<String, Term> newTerms = new ConcurrentSkipListMap<>();
+        Map<String, String> newTermByEntity = new HashMap<>();
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (Tuple tuple : queryFactory.select(member.id, member.username).from(member).fetch()) {
+                put(newTerms, newTermByEntity, MEMBER, tuple.get(member.id), tuple.get(member.username));
+            }
+            for (Tuple tuple : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                put(newTerms, newTermByEntity, TEAM, tuple.get(team.id), tuple.get(team.name));
+            }
+        });
+
+        this.terms = newTerms;
+        this.termByEntity = newTermByEntity;
+    }
+
+    /**
+     * 변경 피드 반영
+     *     - 바뀐 회원/팀의 현재 이름을 다시 읽는다. (없으면 삭제된 것)
+     * */
+    @Override
+    public synchronized void onChanges(List<ChangeEvent> events) {
+        Set<Long> memberIds = new LinkedHashSet<>();
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (ChangeEvent event : events) {
+            if ("Member".equals(event.getEntityType())) {
+                memberIds.add(event.getEntityId());
+            } else if ("Team".equals(event.getEntityType())) {
+                teamIds.add(event.getEntityId());
+            }
+        }
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            refresh(MEMBER, memberIds, member, member.id, member.username);
+            refresh(TEAM, teamIds, team, team.id, team.name);
+        });
+    }
+
+    private void refresh(String type, Set<Long> ids, EntityPath<?> from, NumberPath<Long> idPath, StringPath namePath) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, String> current = new HashMap<>();
+        for (List<Long> chunk : InClauseChunks.padded(new ArrayList<>(ids), LOAD_CHUNK_SIZE)) {
+            for (Tuple tuple : queryFactory.select(idPath, namePath).from(from).where(idPath.in(chunk)).fetch()) {
+                current.put(tuple.get(idPath), tuple.get(namePath));
+            }
+        }
+        for (Long id : ids) {
+            remove(terms, termByEntity, type, id);
+            if (current.containsKey(id)) {
+                put(terms, termByEntity, type, id, current.get(id));
+            }
+        }
+    }
+
+    private static void put(ConcurrentSkipListMap<String, Term> terms, Map<String, String> termByEntity,
+                            String type, Long id, String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        termByEntity.put(type + ":" + id, key);
+        terms.compute(key, (k, term) -> (term == null ? new Term(text.trim(), 0, 0) : term).add(type, 1));
+    }
+
+    private static void remove(ConcurrentSkipListMap<String, Term> terms, Map<String, String> termByEntity,
+                               String type, Long id) {
+        String key = termByEntity.remove(type + ":" + id);
+        if (key != null) {
+            terms.computeIfPresent(key, (k, term) -> {
+                Term removed = term.add(type, -1);
+                return removed.isEmpty() ? null : removed;
+            });
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * <이름별 회원/팀 수> (불변)
+     * */
+    private static final class Term {
+
+        private final String text;
+        private final int members;
+        private final int teams;
+
+        private Term(String text, int members, int teams) {
+            this.text = text;
+            this.members = members;
+            this.teams = teams;
+        }
+
+        private Term add(String type, int delta) {
+            return MEMBER.equals(type)
+                    ? new Term(text, members + delta, teams)
+                    : new Term(text, members, teams + delta);
+        }
+
+        private boolean isEmpty() {
+            return members <= 0 && teams <= 0;
+        }
+    }
+}
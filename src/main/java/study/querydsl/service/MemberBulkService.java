@@ -0,0 +1,78 @@
+package study.querydsl.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkRepository;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadAdmission;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <회원 대량 처리 서비스>
+ *     - 샘플 데이터 생성, 나이 일괄 변경, 내보내기 등 배치 작업용
+ *     - MemberBulkRepository(StatelessSession)를 사용하므로 처리 건수와 관계없이 메모리 사용량이 일정하다.
+ *     - 각 작업은 chunk 단위로 커밋되므로 @Transactional 을 붙이지 않는다.
+ *     - 변경은 대량 변경(BULK_WRITE), 내보내기는 대량 조회(EXPORT) 커넥션 풀을 사용한다. (화면 검색 풀과 분리)
+ *     - 작업마다 WorkloadAdmission 의 허가를 받는다. (동시 실행 수, 화면 검색이 느린 동안 제한)
+ *       : queue-timeout-ms 안에 허가를 받지 못하면 WorkloadRejectedException
+ * */
+@Service
+@RequiredArgsConstructor
+public class MemberBulkService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final MemberBulkRepository memberBulkRepository;
+    private final WorkloadAdmission workloadAdmission;
+
+    /**
+     * 샘플 데이터 생성
+     *     - 팀을 먼저 저장한 후, 회원을 팀에 번갈아 배정해서 저장한다.
+     *     - 반환값 : 저장한 회원 수
+     * */
+    public long seed(List<String> teamNames, int memberCount) {
+        List<Team> teams = teamNames.stream()
+                .map(Team::new)
+                .collect(Collectors.toList());
+        Iterator<Member> members = IntStream.rangeClosed(1, memberCount)
+                .mapToObj(i -> {
+                    Member member = new Member("member" + i, i % 100 + 10);
+                    member.setTeam(teams.get(i % teams.size()));   // Team.members 에 추가하지 않는다.
+                    return member;
+                })
+                .iterator();
+        return workloadAdmission.call(Workload.BULK_WRITE, () -> {
+            memberBulkRepository.insert(teams.iterator(), CHUNK_SIZE);
+            return memberBulkRepository.insert(members, CHUNK_SIZE);
+        });
+    }
+
+    /**
+     * 팀 회원 나이 일괄 변경
+     *     - 팀 조건은 조회 쿼리에서 거른다. (다른 팀 회원은 읽지 않음)
+     *     - 반환값 : 변경한 회원 수
+     * */
+    public long reAge(String teamName, int delta) {
+        return workloadAdmission.call(Workload.BULK_WRITE, () -> memberBulkRepository.updateMembers(teamName, CHUNK_SIZE, member -> {
+            member.setAge(member.getAge() + delta);
+            return true;
+        }));
+    }
+
+    /**
+     * 전체 회원 내보내기
+     *     - 반환값 : 내보낸 회원 수
+     * */
+    public long export(Consumer<MemberTeamDto> sink) {
+        return workloadAdmission.call(Workload.EXPORT, () -> memberBulkRepository.streamMembers(CHUNK_SIZE,
+                member -> sink.accept(MemberTeamDto.of(member))));
+    }
+}
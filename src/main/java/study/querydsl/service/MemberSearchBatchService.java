@@ -0,0 +1,215 @@
+package study.querydsl.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchResult;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.support.QueryGovernor;
+import study.querydsl.workload.WorkloadContext;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <회원 검색 일괄 처리>
+ *     - 검색 조건 여러개를 요청 1번으로 처리한다.
+ *       1. 같은 조건은 1번만 검색한다.
+ *       2. 팀명(1개)만 다른 조건들은 (OR 모드 제외) 팀 IN 조건 쿼리 1번으로 합친 후, 결과를 팀명으로 나눈다.
+ *          (나눈 후 조건마다 최대 행 수로 자른다. 합친 쿼리가 행 수 제한에 걸렸으면, 빠졌을 수 있는 조건은 따로 검색한다.)
+ *       3. 남은 검색은 제한된 크기의 스레드 풀에서 동시에 실행한다.
+ *          (각 검색은 자기 스레드의 읽기 전용 트랜잭션/커넥션을 사용하므로, 풀 크기가 곧 최대 커넥션 사용 수)
+ *          (요청 스레드의 작업 종류(WorkloadContext)를 그대로 사용하므로 같은 커넥션 풀에서 가져온다.)
+ *     - 결과는 요청 순서(index) 별로 돌려준다. (잘라냈는지 여부도 index 마다 표시)
+ * */
+@Service
+public class MemberSearchBatchService {
+
+    public static final int MAX_BATCH_SIZE = 50;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final QueryGovernor queryGovernor;
+    private final ThreadPoolExecutor executor;
+
+    public MemberSearchBatchService(MemberJpaRepository memberJpaRepository,
+                                    QueryGovernor queryGovernor,
+                                    @Value("${member.search-batch.parallelism:4}") int parallelism) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.queryGovernor = queryGovernor;
+        AtomicInteger threadCount = new AtomicInteger();
+        // 풀과 대기열이 모두 차면 요청 스레드가 직접 실행한다. (대기열이 무한히 쌓이지 않음)
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * MAX_BATCH_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "member-search-batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 일괄 검색
+     *     - 반환값 : 요청 index -> 검색 결과
+     * */
+    public Map<Integer, MemberSearchResult> search(List<MemberSearchCondition> conditions) {
+        if (conditions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("검색 조건은 최대 " + MAX_BATCH_SIZE + "개까지 요청할 수 있습니다.");
+        }
+
+        // 1. 같은 조건 합치기 (조건 -> 요청 index 목록)
+        Map<MemberSearchCondition, List<Integer>> indexesByCondition = new LinkedHashMap<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            MemberSearchCondition condition = Objects.requireNonNull(conditions.get(i), "condition");
+            indexesByCondition.computeIfAbsent(condition, c -> new ArrayList<>()).add(i);
+        }
+
+        // 2. 팀명만 다른 조건 묶기 (팀명을 뺀 조건 -> 팀명 조건 목록)
+        Map<MemberSearchCondition, List<MemberSearchCondition>> byTeamless = new LinkedHashMap<>();
+        List<Callable<Map<MemberSearchCondition, MemberSearchResult>>> tasks = new ArrayList<>();
+        for (MemberSearchCondition condition : indexesByCondition.keySet()) {
+            if (!condition.isMatchAny() && condition.teamNameValues().size() == 1) {
+                byTeamless.computeIfAbsent(withoutTeamName(condition), c -> new ArrayList<>()).add(condition);
+            } else {
+                tasks.add(searchOne(condition));
+            }
+        }
+        byTeamless.forEach((teamless, group) -> tasks.add(group.size() == 1
+                ? searchOne(group.get(0))
+                : queryGovernor.wrapTracked(() -> searchMerged(teamless, group))));
+
+        // 3. 실행 (합친 쿼리에서 결과가 빠졌을 수 있는 조건은 따로 다시 검색)
+        Map<MemberSearchCondition, MemberSearchResult> resultsByCondition = execute(tasks);
+        List<Callable<Map<MemberSearchCondition, MemberSearchResult>>> retries = new ArrayList<>();
+        for (MemberSearchCondition condition : indexesByCondition.keySet()) {
+            if (!resultsByCondition.containsKey(condition)) {
+                retries.add(searchOne(condition));
+            }
+        }
+        if (!retries.isEmpty()) {
+            resultsByCondition.putAll(execute(retries));
+        }
+
+        // 4. 요청 index 별로 펼치기
+        Map<Integer, MemberSearchResult> results = new TreeMap<>();
+        indexesByCondition.forEach((condition, indexes) -> {
+            for (Integer index : indexes) {
+                results.put(index, resultsByCondition.get(condition));
+            }
+        });
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // 조건 1개 검색 (잘라냈는지는 검색마다 따로 확인)
+    private Callable<Map<MemberSearchCondition, MemberSearchResult>> searchOne(MemberSearchCondition condition) {
+        return queryGovernor.wrapTracked(() -> Map.of(condition,
+                new MemberSearchResult(memberJpaRepository.search(condition), queryGovernor.isTruncated())));
+    }
+
+    /**
+     * 팀명만 다른 조건들을 쿼리 1번으로 검색
+     *     - 팀마다 최대 행 수 + 1 건까지 조회하므로(searchInTeams), 최대 행 수를 넘은 팀은 잘라낸다.
+     *     - 합친 쿼리가 행 수 제한에 걸렸으면 다른 팀의 행이 빠졌을 수 있으므로, 최대 행 수를 넘지 않은 조건은 결과에서 뺀다.
+     *       (search 에서 따로 다시 검색)
+     * */
+    private Map<MemberSearchCondition, MemberSearchResult> searchMerged(MemberSearchCondition teamless,
+                                                                        List<MemberSearchCondition> group) {
+        List<String> teamNames = new ArrayList<>();
+        for (MemberSearchCondition condition : group) {
+            teamNames.add(teamName(condition));
+        }
+
+        int maxRows = queryGovernor.maxRows();
+        List<MemberTeamDto> rows = memberJpaRepository.searchInTeams(teamless, teamNames);
+        boolean complete = rows.size() < teamNames.size() * (maxRows + 1L);
+
+        Map<String, List<MemberTeamDto>> byTeamName = new HashMap<>();
+        for (MemberTeamDto dto : rows) {
+            byTeamName.computeIfAbsent(dto.getTeamName(), name -> new ArrayList<>()).add(dto);
+        }
+
+        Map<MemberSearchCondition, MemberSearchResult> results = new HashMap<>();
+        for (MemberSearchCondition condition : group) {
+            List<MemberTeamDto> result = byTeamName.getOrDefault(teamName(condition), List.of());
+            if (result.size() > maxRows) {
+                results.put(condition, new MemberSearchResult(queryGovernor.cap(result), true));
+            } else if (complete) {
+                results.put(condition, new MemberSearchResult(result, false));
+            }
+        }
+        return results;
+    }
+
+    private Map<MemberSearchCondition, MemberSearchResult> execute(
+            List<Callable<Map<MemberSearchCondition, MemberSearchResult>>> tasks) {
+        Map<MemberSearchCondition, MemberSearchResult> results = new HashMap<>();
+        try {
+            // 1개면 요청 스레드에서 바로 실행
+            if (tasks.size() == 1) {
+                results.putAll(tasks.get(0).call());
+                return results;
+            }
+
+            List<Future<Map<MemberSearchCondition, MemberSearchResult>>> futures = new ArrayList<>(tasks.size());
+            for (Callable<Map<MemberSearchCondition, MemberSearchResult>> task : tasks) {
+                futures.add(executor.submit(WorkloadContext.wrap(task)));
+            }
+            for (Future<Map<MemberSearchCondition, MemberSearchResult>> future : futures) {
+                results.putAll(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("회원 일괄 검색이 중단되었습니다.", e);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    private static MemberSearchCondition withoutTeamName(MemberSearchCondition condition) {
+        MemberSearchCondition teamless = new MemberSearchCondition();
+        teamless.setUsername(condition.getUsername());
+        teamless.setUsernames(condition.getUsernames());
+        teamless.setAgeGoe(condition.getAgeGoe());
+        teamless.setAgeLoe(condition.getAgeLoe());
+        teamless.setAgeRanges(condition.getAgeRanges());
+        return teamless;
+    }
+
+    // 팀명 1개인 조건의 팀명 (teamName 또는 teamNames 의 값)
+    private static String teamName(MemberSearchCondition condition) {
+        return condition.teamNameValues().get(0);
+    }
+}
@@ -0,0 +1,315 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.change.ChangeOutbox;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.ChangeOperation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.workload.Workload;
+import study.querydsl.workload.WorkloadContext;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <회원 변경 write-behind 버퍼>
+ *     - 회원 나이/팀 변경을 바로 DB에 쓰지 않고, 회원 id 별로 모아서(coalesce) 한번에 반영한다.
+ *       : 같은 회원을 여러번 바꿔도 마지막 값 1건만 update 된다.
+ *     - 반영 시점 : 주기(flush-interval-ms) 또는 대기 건수(max-pending) 초과 시
+ *     - 반영 방법 : JDBC batch update + 변경 이벤트(outbox) 저장 (트랜잭션 1개, 내부 백그라운드(BACKGROUND) 커넥션 풀)
+ *       : 없는 팀으로 바꾸는 등 제약조건을 어기는 변경은 버리고 로그를 남긴다. (나머지 변경은 반영)
+ *       : 항상 새 트랜잭션(REQUIRES_NEW)으로 커밋한다. 호출한 쪽 트랜잭션이 롤백되어도 반영한 변경은 남는다.
+ *     - 조회 : findMember() 는 DB 값 위에 아직 반영되지 않은 변경을 덮어서 돌려준다. (read-your-writes)
+ *     - 종료 : 애플리케이션 종료 시 남은 변경을 모두 반영한다.
+ *
+ *     - 기본값은 꺼짐 : member.write-behind.enabled=true 로 켠다.
+ *     - 주의 : JPA 를 거치지 않으므로 이미 로딩된 엔티티에는 반영되지 않는다. (2차 캐시는 반영 후 무효화)
+ * */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "member.write-behind.enabled", havingValue = "true")
+public class MemberWriteBehindBuffer {
+
+    private static final String UPDATE_SQL =
+            "update member set age = coalesce(?, age), team_id = coalesce(?, team_id) where member_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+    private final ChangeOutbox changeOutbox;
+    private final int maxPending;
+    private final int batchSize;
+
+    // 반영 대기 중인 변경 (회원 id -> 변경 내용)
+    private final ConcurrentMap<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    // 반영 중인 변경 (커밋 전까지 read-your-writes 를 위해 보관)
+    private final ConcurrentMap<Long, PendingUpdate> inFlight = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public MemberWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   EntityManager em,
+                                   ChangeOutbox changeOutbox,
+                                   @Value("${member.write-behind.flush-interval-ms:500}") long flushIntervalMs,
+                                   @Value("${member.write-behind.max-pending:1000}") int maxPending,
+                                   @Value("${member.write-behind.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 바깥 트랜잭션에 참여하면 inFlight 정리, 캐시 무효화가 커밋 전에 일어나고 롤백 시 변경을 잃는다.
+        // 새 트랜잭션이어야 BACKGROUND 커넥션 풀에서 커넥션을 받는다.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.em = em;
+        this.changeOutbox = changeOutbox;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 나이 변경 요청
+     * */
+    public void changeAge(Long memberId, int age) {
+        enqueue(memberId, new PendingUpdate(age, null));
+    }
+
+    /**
+     * 팀 변경 요청
+     * */
+    public void changeTeam(Long memberId, Long teamId) {
+        enqueue(memberId, new PendingUpdate(null, teamId));
+    }
+
+    /**
+     * 아직 DB에 반영되지 않은 변경 조회
+     * */
+    public Optional<PendingUpdate> findPending(Long memberId) {
+        PendingUpdate flushing = inFlight.get(memberId);
+        PendingUpdate waiting = pending.get(memberId);
+        if (flushing == null) {
+            return Optional.ofNullable(waiting);
+        }
+        return Optional.of(waiting == null ? flushing : flushing.mergedWith(waiting));
+    }
+
+    /**
+     * 회원 조회 (read-your-writes)
+     *     - DB 값에 반영 대기 중인 나이/팀 변경을 덮어서 돌려준다.
+     * */
+    @Transactional(readOnly = true)
+    public Optional<MemberTeamDto> findMember(Long memberId) {
+        Member member = em.find(Member.class, memberId);
+        if (member == null) {
+            return Optional.empty();
+        }
+        MemberTeamDto dto = MemberTeamDto.of(member);
+        findPending(memberId).ifPresent(update -> {
+            if (update.getAge() != null) {
+                dto.setAge(update.getAge());
+            }
+            if (update.getTeamId() != null && !update.getTeamId().equals(dto.getTeamId())) {
+                Team team = em.find(Team.class, update.getTeamId());
+                dto.setTeamId(update.getTeamId());
+                dto.setTeamName(team == null ? null : team.getName());
+            }
+        });
+        return Optional.of(dto);
+    }
+
+    /**
+     * 대기 중인 변경 건수
+     * */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 대기 중인 변경을 DB에 반영한다.
+     *     - 한번에 하나의 flush 만 수행한다.
+     *     - 제약조건을 어기는 변경(없는 팀 등)이 있으면 한 건씩 다시 반영하고, 실패한 변경만 버린다. (로그)
+     *     - 그 외의 이유로 실패하면 변경을 버퍼로 되돌린다. (그 사이 들어온 새 변경이 우선)
+     *     - 반환값 : 반영한 회원 수
+     * */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        Map<Long, PendingUpdate> batch = drain();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int flushed;
+        try {
+            try {
+                write(batch);
+                flushed = batch.size();
+            } catch (DataIntegrityViolationException e) {
+                // batch 는 한 건만 실패해도 전체가 롤백되므로, 한 건씩 다시 반영한다.
+                flushed = writeEach(batch);
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(this::requeue);
+            throw e;
+        } finally {
+            inFlight.clear();
+        }
+
+        batch.keySet().forEach(memberId -> em.getEntityManagerFactory().getCache().evict(Member.class, memberId));
+        return flushed;
+    }
+
+    // JDBC batch update + 변경 이벤트 저장 (새 트랜잭션, 내부 백그라운드(BACKGROUND) 커넥션 풀)
+    private void write(Map<Long, PendingUpdate> updates) {
+        WorkloadContext.run(Workload.BACKGROUND, () -> transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> args = new ArrayList<>(updates.size());
+            updates.forEach((memberId, update) ->
+                    args.add(new Object[]{update.getAge(), update.getTeamId(), memberId}));
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args, batchSize, (ps, arg) -> {
+                ps.setObject(1, arg[0]);
+                ps.setObject(2, arg[1]);
+                ps.setObject(3, arg[2]);
+            });
+            changeOutbox.record(Member.class, updates.keySet(), ChangeOperation.UPDATE);
+        }));
+    }
+
+    /**
+     * 한 건씩 반영 (건마다 트랜잭션)
+     *     - 제약조건을 어기는 변경은 버린다. 다시 반영해도 계속 실패하므로 버퍼에 되돌리지 않는다.
+     *     - 반영한 변경은 2차 캐시에서 바로 지우고 batch 에서도 지운다. (나머지는 호출한 쪽에서 버퍼로 되돌림)
+     * */
+    private int writeEach(Map<Long, PendingUpdate> batch) {
+        int flushed = 0;
+        for (Iterator<Map.Entry<Long, PendingUpdate>> it = batch.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, PendingUpdate> entry = it.next();
+            try {
+                write(Map.of(entry.getKey(), entry.getValue()));
+                em.getEntityManagerFactory().getCache().evict(Member.class, entry.getKey());
+                flushed++;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("member write-behind update dropped. memberId={}, update={}", entry.getKey(), entry.getValue(), e);
+            }
+            it.remove();
+        }
+        return flushed;
+    }
+
+    // 버퍼로 되돌린다. (그 사이 들어온 새 변경이 우선)
+    private void requeue(Long memberId, PendingUpdate update) {
+        pending.merge(memberId, update, (newer, older) -> older.mergedWith(newer));
+    }
+
+    /**
+     * 종료 시 남은 변경을 모두 반영한다.
+     * */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void enqueue(Long memberId, PendingUpdate update) {
+        pending.merge(memberId, update, PendingUpdate::mergedWith);
+
+        if (closed) {
+            flush();        // 종료 중에는 바로 반영
+        } else if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 버퍼의 변경을 inFlight 로 옮긴다.
+     *     - inFlight 에 먼저 넣고 버퍼에서 지우므로, 조회 시 변경이 사라져 보이는 순간이 없다.
+     *     - 그 사이 값이 바뀌었으면 (합쳐진 새 값으로) 다시 시도한다.
+     * */
+    private Map<Long, PendingUpdate> drain() {
+        Map<Long, PendingUpdate> batch = new LinkedHashMap<>();
+        for (Long memberId : new ArrayList<>(pending.keySet())) {
+            PendingUpdate update;
+            do {
+                update = pending.get(memberId);
+                if (update == null) {
+                    break;
+                }
+                inFlight.put(memberId, update);
+            } while (!pending.remove(memberId, update));
+
+            if (update != null) {
+                batch.put(memberId, update);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 주기적 반영
+     *     - 내부 백그라운드 작업이므로 사용자 요청의 허가(WorkloadAdmission)를 받지 않는다.
+     * */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member write-behind flush failed. pending={}", pending.size(), e);
+        }
+    }
+
+    /**
+     * <반영 대기 중인 변경>
+     *     - null 인 항목은 변경하지 않는다.
+     * */
+    @Getter
+    public static final class PendingUpdate {
+
+        private final Integer age;
+        private final Long teamId;
+
+        PendingUpdate(Integer age, Long teamId) {
+            this.age = age;
+            this.teamId = teamId;
+        }
+
+        // 새 변경(newer)의 값이 있으면 새 값으로 덮는다.
+        PendingUpdate mergedWith(PendingUpdate newer) {
+            return new PendingUpdate(
+                    newer.age != null ? newer.age : age,
+                    newer.teamId != null ? newer.teamId : teamId);
+        }
+
+        @Override
+        public String toString() {
+            return "PendingUpdate(age=" + age + ", teamId=" + teamId + ")";
+        }
+    }
+}
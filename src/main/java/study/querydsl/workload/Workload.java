@@ -0,0 +1,37 @@
+package study.querydsl.workload;
+
+import lombok.Getter;
+
+/**
+ * <작업 종류 (bulkhead)>
+ *     - 작업 종류마다 커넥션 풀이 따로 있어서, 한 종류가 풀을 다 써도 다른 종류는 영향이 없다.
+ *     - 설정 : workload.<key>.pool-size (커넥션 풀 크기), workload.<key>.max-concurrent (동시 요청 수) 등
+ *
+ *     - INTERACTIVE : 화면 검색 (/v1 ~ /v5, 필터 등), 지정하지 않은 요청의 기본값
+ *     - EXPORT      : 대량 조회 (스트리밍 내보내기, 일괄 검색)
+ *     - BULK_WRITE  : 대량 변경 (MemberBulkService)
+ *     - BACKGROUND  : 내부 백그라운드 작업 (변경 피드, write-behind 반영, 자동완성 인덱스)
+ *       : 사용자 요청이 아니므로 동시 실행 수 제한(WorkloadAdmission)을 받지 않고, 자기 풀만 사용한다.
+ * */
+@Getter
+public enum Workload {
+
+    INTERACTIVE("interactive", 10, Integer.MAX_VALUE, Integer.MAX_VALUE, false),
+    EXPORT("export", 4, 4, 1, true),
+    BULK_WRITE("bulk-write", 2, 2, 0, true),
+    BACKGROUND("background", 2, Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+
+    private final String key;
+    private final int defaultPoolSize;
+    private final int defaultMaxConcurrent;         // 평소 동시 실행 수
+    private final int defaultDegradedConcurrent;    // 대화형 p99 가 높을 때 동시 실행 수
+    private final boolean limited;                  // 동시 실행 수 제한(WorkloadAdmission) 대상 여부
+
+    Workload(String key, int defaultPoolSize, int defaultMaxConcurrent, int defaultDegradedConcurrent, boolean limited) {
+        this.key = key;
+        this.defaultPoolSize = defaultPoolSize;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.defaultDegradedConcurrent = defaultDegradedConcurrent;
+        this.limited = limited;
+    }
+}
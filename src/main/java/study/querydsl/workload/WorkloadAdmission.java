@@ -0,0 +1,210 @@
+package study.querydsl.workload;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <작업 종류별 실행 허가 (admission control)>
+ *     - 대화형(INTERACTIVE) 요청 응답 시간의 p99 를 최근 window 건으로 계산한다.
+ *     - 대화형 외의 작업은 동시 실행 수를 제한한다.
+ *       : 평소 : workload.<key>.max-concurrent
+ *       : 대화형 p99 가 workload.admission.interactive-p99-ms 를 넘으면 : workload.<key>.degraded-concurrent
+ *     - 웹 요청(tryAcquire) : 자리가 없으면 바로 거절한다. (shed, 503) 요청 스레드(Tomcat)를 잡고 기다리지 않는다.
+ *     - 백그라운드 작업(call, run) : 작업 스레드에서 queue-timeout-ms 동안 기다리고(queue), 그래도 없으면 거절한다.
+ *       : 허가를 받으면 작업 종류(WorkloadContext)를 설정해서 실행한다. (커넥션 풀 선택)
+ *     - 대화형(INTERACTIVE), 내부 백그라운드(BACKGROUND) 작업은 제한하지 않는다. (Workload.limited)
+ * */
+@Component
+public class WorkloadAdmission {
+
+    // 이 건수보다 적으면 p99 를 계산하지 않는다. (시작 직후)
+    private static final int MIN_SAMPLES = 20;
+    // 기다리는 동안 p99 가 내려갔는지 다시 확인하는 간격
+    private static final long RECHECK_MS = 50;
+    // p99 재계산 간격
+    private static final long P99_REFRESH_MS = 200;
+
+    private final long p99ThresholdMs;
+    private final long queueTimeoutMs;
+
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private volatile long p99Ms;
+    private volatile long p99RefreshedAt;
+
+    private final Map<Workload, Gate> gates = new EnumMap<>(Workload.class);
+
+    public WorkloadAdmission(@Value("${workload.admission.interactive-p99-ms:500}") long interactiveP99Ms,
+                             @Value("${workload.admission.queue-timeout-ms:2000}") long queueTimeoutMs,
+                             @Value("${workload.admission.window:512}") int window,
+                             Environment environment) {
+        this.p99ThresholdMs = interactiveP99Ms;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.samples = new long[window];
+        for (Workload workload : Workload.values()) {
+            if (!workload.isLimited()) {
+                continue;
+            }
+            String prefix = "workload." + workload.getKey();
+            gates.put(workload, new Gate(
+                    environment.getProperty(prefix + ".max-concurrent", Integer.class, workload.getDefaultMaxConcurrent()),
+                    environment.getProperty(prefix + ".degraded-concurrent", Integer.class, workload.getDefaultDegradedConcurrent())));
+        }
+    }
+
+    /**
+     * 대화형 요청 응답 시간 기록
+     * */
+    public void recordInteractive(long elapsedMs) {
+        synchronized (samples) {
+            samples[nextSample] = elapsedMs;
+            nextSample = (nextSample + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+        }
+    }
+
+    /**
+     * 최근 대화형 요청 응답 시간 p99 (ms)
+     * */
+    public long interactiveP99Ms() {
+        long now = System.currentTimeMillis();
+        if (now - p99RefreshedAt >= P99_REFRESH_MS) {
+            long[] copy;
+            synchronized (samples) {
+                copy = Arrays.copyOf(samples, sampleCount);
+            }
+            Arrays.sort(copy);
+            p99Ms = copy.length < MIN_SAMPLES ? 0L : copy[(int) Math.ceil(copy.length * 0.99) - 1];
+            p99RefreshedAt = now;
+        }
+        return p99Ms;
+    }
+
+    /**
+     * 대화형 요청이 느려졌는지 여부
+     * */
+    public boolean isDegraded() {
+        return interactiveP99Ms() > p99ThresholdMs;
+    }
+
+    /**
+     * 실행 허가 (제한 대상이 아니면 항상 허가)
+     *     - 기다리지 않는다. 자리가 없으면 바로 false
+     *     - false 면 거절된 것이므로 release() 를 호출하지 않는다.
+     * */
+    public boolean tryAcquire(Workload workload) {
+        Gate gate = gates.get(workload);
+        return gate == null || gate.tryAcquire();
+    }
+
+    /**
+     * 실행 허가 (자리가 날 때까지 timeoutMs 동안 기다림)
+     *     - 요청 스레드에서는 사용하지 않는다. (백그라운드 작업 스레드 전용)
+     * */
+    public boolean tryAcquire(Workload workload, long timeoutMs) throws InterruptedException {
+        Gate gate = gates.get(workload);
+        return gate == null || gate.acquire(timeoutMs);
+    }
+
+    /**
+     * 허가를 받아서 작업 종류를 설정하고 실행한다. (백그라운드 작업용)
+     *     - queue-timeout-ms 안에 허가를 받지 못하면 WorkloadRejectedException
+     *     - 이미 같은 작업 종류로 실행 중이면 (허가를 받은 작업 안에서 호출) 다시 받지 않는다.
+     * */
+    public <T> T call(Workload workload, Supplier<T> task) {
+        if (WorkloadContext.current() == workload) {
+            return task.get();
+        }
+        boolean admitted;
+        try {
+            admitted = tryAcquire(workload, queueTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            throw new WorkloadRejectedException(workload);
+        }
+        try {
+            return WorkloadContext.call(workload, task);
+        } finally {
+            release(workload);
+        }
+    }
+
+    public void run(Workload workload, Runnable task) {
+        call(workload, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public void release(Workload workload) {
+        Gate gate = gates.get(workload);
+        if (gate != null) {
+            gate.release();
+        }
+    }
+
+    /**
+     * 작업 종류별 거절 건수
+     * */
+    public Map<Workload, Long> shed() {
+        Map<Workload, Long> counts = new EnumMap<>(Workload.class);
+        gates.forEach((workload, gate) -> counts.put(workload, gate.shed.sum()));
+        return counts;
+    }
+
+    private final class Gate {
+
+        private final int maxConcurrent;
+        private final int degradedConcurrent;
+        private final LongAdder shed = new LongAdder();
+        private int inFlight;
+
+        private Gate(int maxConcurrent, int degradedConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+            this.degradedConcurrent = degradedConcurrent;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (inFlight >= limit()) {
+                shed.increment();
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        private synchronized boolean acquire(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (inFlight >= limit()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    shed.increment();
+                    return false;
+                }
+                wait(Math.min(remaining, RECHECK_MS));
+            }
+            inFlight++;
+            return true;
+        }
+
+        private synchronized void release() {
+            inFlight--;
+            notifyAll();
+        }
+
+        private int limit() {
+            return isDegraded() ? degradedConcurrent : maxConcurrent;
+        }
+    }
+}
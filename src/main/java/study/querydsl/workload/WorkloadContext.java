@@ -0,0 +1,80 @@
+package study.querydsl.workload;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * <현재 스레드의 작업 종류>
+ *     - WorkloadRoutingDataSource 가 커넥션을 가져올 때 사용한다. (없으면 INTERACTIVE)
+ *     - 커넥션을 가져오는 시점의 값이 적용되므로, 이미 시작한 트랜잭션 안에서 바꿔도 그 트랜잭션의 커넥션은 바뀌지 않는다.
+ *     - 다른 스레드에서 실행할 작업은 wrap() 으로 감싸면 제출한 스레드의 작업 종류를 그대로 사용한다. (TaskDecorator)
+ * */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload == null ? Workload.INTERACTIVE : workload;
+    }
+
+    public static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 작업 종류를 지정해서 실행 (끝나면 이전 값으로 되돌린다.)
+     * */
+    public static <T> T call(Workload workload, Supplier<T> task) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(Workload workload, Runnable task) {
+        call(workload, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 지금 스레드의 작업 종류로 실행하도록 감싸기
+     * */
+    public static Runnable wrap(Runnable task) {
+        Workload workload = current();
+        return () -> run(workload, task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Workload workload = current();
+        return () -> {
+            Workload previous = CURRENT.get();
+            CURRENT.set(workload);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Workload previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
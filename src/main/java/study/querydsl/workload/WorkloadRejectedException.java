@@ -0,0 +1,22 @@
+package study.querydsl.workload;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * <작업 거절>
+ *     - WorkloadAdmission 이 허가하지 않은 작업 (동시 실행 수 초과, 대화형 요청이 느린 동안)
+ *     - 웹 요청에서는 503 으로 응답한다.
+ * */
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WorkloadRejectedException extends RuntimeException {
+
+    private final Workload workload;
+
+    public WorkloadRejectedException(Workload workload) {
+        super("처리 중인 " + workload.getKey() + " 작업이 많습니다. 잠시 후 다시 요청하세요.");
+        this.workload = workload;
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.workload;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * <작업 종류별 커넥션 풀 선택>
+ *     - 커넥션을 가져올 때 현재 스레드의 작업 종류(WorkloadContext)의 풀을 사용한다.
+ *     - 종료 시 풀을 모두 닫는다.
+ * */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.workload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <컨트롤러 메소드 작업 종류>
+ *     - 요청 동안 이 작업 종류의 커넥션 풀을 사용하고, 동시 실행 수 제한(WorkloadAdmission)을 받는다.
+ *     - 붙이지 않은 요청은 INTERACTIVE
+ * */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WorkloadType {
+
+    Workload value();
+}
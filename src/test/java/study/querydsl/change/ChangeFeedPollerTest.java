@@ -0,0 +1,150 @@
+package study.querydsl.change;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.entity.ChangeOperation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * <트랜잭션 outbox + 변경 피드 테스트>
+ *     - 이벤트는 커밋된 후에만 보이므로 @Transactional 을 붙이지 않는다.
+ *     - 주기 폴링이 끼어들지 않도록 주기를 길게 잡고, poll() 을 직접 호출한다.
+ *     - 커밋이 늦은 트랜잭션의 이벤트도 빠지지 않는지 확인한다. (순번 = 커밋 순서)
+ * */
+@SpringBootTest(properties = {
+        "change-feed.poll-interval-ms=600000"
+})
+class ChangeFeedPollerTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired ChangeOutbox changeOutbox;
+    @Autowired ChangeFeedPoller changeFeedPoller;
+    @Autowired RecordingSubscriber recordingSubscriber;
+
+    @Test
+    void entityAndBulkChangesAreDelivered() {
+        // 1. 엔티티 변경 -> 리스너가 outbox 저장
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("FEEDTEAM_A");
+            Team teamB = new Team("FEEDTEAM_B");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("feedMember", 10, teamA);
+            em.persist(member);
+            return new Long[]{member.getId(), teamB.getId()};
+        });
+
+        // 2. 벌크 변경 -> 직접 outbox 저장 (없는 회원 id 는 이벤트 없음)
+        memberJpaRepository.reassignTeam(List.of(ids[0], -1L), ids[1]);
+
+        drain();
+        for (ChangeEvent event : recordingSubscriber.events) {
+            System.out.println("\t event = " + event);
+        }
+
+        assertThat(recordingSubscriber.events)
+                .extracting(ChangeEvent::getEntityType, ChangeEvent::getEntityId, ChangeEvent::getOperation)
+                .contains(tuple("Team", ids[1], ChangeOperation.INSERT),
+                          tuple("Member", ids[0], ChangeOperation.INSERT),
+                          tuple("Member", ids[0], ChangeOperation.UPDATE))
+                .doesNotContain(tuple("Member", -1L, ChangeOperation.UPDATE));
+        assertThat(recordingSubscriber.events)
+                .extracting(ChangeEvent::getSeq)
+                .isSorted();
+    }
+
+    @Test
+    void longTransactionIsNotSkipped() throws Exception {
+        Long slowId = -System.nanoTime();
+        Long fastId = slowId - 1;
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // 1. 먼저 이벤트를 저장하고 커밋하지 않는 트랜잭션
+            Future<?> slow = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                changeOutbox.record(Member.class, List.of(slowId), ChangeOperation.UPDATE);
+                recorded.countDown();
+                await(release);
+            }));
+            recorded.await(5, TimeUnit.SECONDS);
+
+            // 2. 뒤에 시작한 트랜잭션은 앞 트랜잭션이 커밋될 때까지 순번을 받지 못한다.
+            Future<?> fast = executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    changeOutbox.record(Member.class, List.of(fastId), ChangeOperation.UPDATE)));
+            Thread.sleep(100);
+            assertThat(fast.isDone()).isFalse();
+            drain();
+            assertThat(recordingSubscriber.events).extracting(ChangeEvent::getEntityId).doesNotContain(slowId, fastId);
+
+            // 3. 커밋된 후에는 커밋 순서대로 전달된다.
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            fast.get(5, TimeUnit.SECONDS);
+            drain();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        List<Long> delivered = recordingSubscriber.events.stream()
+                .map(ChangeEvent::getEntityId)
+                .filter(id -> id.equals(slowId) || id.equals(fastId))
+                .collect(Collectors.toList());
+        System.out.println("\t delivered = " + delivered);
+        assertThat(delivered).containsExactly(slowId, fastId);
+    }
+
+    private void drain() {
+        while (changeFeedPoller.poll() > 0) {
+            // 쌓인 이벤트를 모두 받을 때까지
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements ChangeSubscriber {
+        final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onChanges(List<ChangeEvent> events) {
+            this.events.addAll(events);
+        }
+    }
+}
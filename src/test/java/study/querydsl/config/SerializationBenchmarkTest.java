@@ -0,0 +1,98 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.PageResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <페이지 직렬화 성능 비교>
+ *     1. 기본 ObjectMapper + PageImpl         (기존 /v2 ~ /v4 응답)
+ *     2. 기본 ObjectMapper + PageResponse
+ *     3. 직접 만든 Serializer + Blackbird + PageResponse
+ *
+ *     - 10, 100, 2000 건 페이지를 반복해서 직렬화한 후 초당 처리 건수를 출력한다. (./gradlew benchmark)
+ *     - 기본 test 에서는 같은 JSON 을 만드는지, PageResponse 가 더 작은지만 확인한다.
+ *     - 스프링 컨텍스트 없이 JacksonConfig 의 모듈만 사용한다.
+ * */
+class SerializationBenchmarkTest {
+
+    private static final long MEASURE_NANOS = 300_000_000L;   // 0.3초씩 측정
+
+    private final ObjectMapper plain = new ObjectMapper();
+    private final ObjectMapper tuned = new ObjectMapper()
+            .registerModule(new JacksonConfig().memberDtoModule())
+            .registerModule(new JacksonConfig().blackbirdModule());
+
+    @Test
+    void sameJsonAndSmallerPages() throws Exception {
+        for (int rows : new int[]{0, 1, 10, 100}) {
+            List<MemberTeamDto> members = members(rows);
+            if (rows > 0) {
+                members.set(0, new MemberTeamDto(0L, null, 0, null, null));   // 팀 없는 회원, null 이름
+            }
+            Page<MemberTeamDto> page = new PageImpl<>(members, PageRequest.of(0, Math.max(rows, 1)), rows * 10L);
+            PageResponse<MemberTeamDto> response = PageResponse.of(page);
+
+            // 직접 만든 Serializer 도 같은 JSON 을 만들어야 한다.
+            assertThat(tuned.readTree(tuned.writeValueAsBytes(response)))
+                    .isEqualTo(plain.readTree(plain.writeValueAsBytes(response)));
+            // PageResponse 는 pageable, sort 등을 빼므로 PageImpl 보다 작다.
+            assertThat(plain.writeValueAsBytes(response).length).isLessThan(plain.writeValueAsBytes(page).length);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void serializePages() throws Exception {
+        for (int rows : new int[]{10, 100, 2000}) {
+            Page<MemberTeamDto> page = new PageImpl<>(members(rows), PageRequest.of(0, rows), rows * 10L);
+            PageResponse<MemberTeamDto> response = PageResponse.of(page);
+
+            double pageImpl = opsPerSecond(plain, page);
+            double lean = opsPerSecond(plain, response);
+            double leanTuned = opsPerSecond(tuned, response);
+
+            System.out.printf("\t rows=%4d | PageImpl %,10.0f ops/s (%,7d bytes) | PageResponse %,10.0f ops/s (%,7d bytes) | PageResponse+tuned %,10.0f ops/s%n",
+                    rows,
+                    pageImpl, plain.writeValueAsBytes(page).length,
+                    lean, plain.writeValueAsBytes(response).length,
+                    leanTuned);
+        }
+    }
+
+    private double opsPerSecond(ObjectMapper mapper, Object value) throws Exception {
+        // 워밍업
+        long warmupEnd = System.nanoTime() + MEASURE_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            mapper.writeValueAsBytes(value);
+        }
+
+        long count = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            mapper.writeValueAsBytes(value);
+            count++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return count * 1_000_000_000d / elapsed;
+    }
+
+    private List<MemberTeamDto> members(int rows) {
+        List<MemberTeamDto> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new MemberTeamDto((long) i, "member" + i, 20 + i % 50, (long) (i % 4), "TEAM" + (i % 4)));
+        }
+        return members;
+    }
+}
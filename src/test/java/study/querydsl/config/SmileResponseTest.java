@@ -0,0 +1,57 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * <Smile 응답 테스트>
+ *     - 같은 요청을 JSON / Smile 로 받아서 내용은 같고 크기는 작은지 확인한다.
+ * */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class SmileResponseTest {
+
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void smileResponse() throws Exception {
+        Team team = new Team("SMILETEAM");
+        em.persist(team);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("smileMember" + i, i, team));
+        }
+        em.flush();
+
+        byte[] json = mockMvc.perform(get("/v1/members").param("teamName", "SMILETEAM")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/v1/members").param("teamName", "SMILETEAM")
+                        .accept(WebConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        System.out.println("\t json = " + json.length + " bytes, smile = " + smile.length + " bytes");
+
+        JsonNode fromJson = objectMapper.readTree(json);
+        JsonNode fromSmile = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertThat(fromSmile).isEqualTo(fromJson);
+        assertThat(fromSmile).hasSize(100);
+        assertThat(smile.length).isLessThan(json.length);
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.WebConfig;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <테이블 버전 ETag 테스트>
+ *     - 버전은 커밋된 후에 올라가므로 @Transactional 을 붙이지 않는다.
+ * */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberEtagTest {
+
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @Test
+    void conditionalGet() throws Exception {
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = new Team("ETAGTEAM");
+            Team other = new Team("ETAGTEAM_OTHER");
+            em.persist(team);
+            em.persist(other);
+            Member member = new Member("etagMember", 10, team);
+            em.persist(member);
+            return new Long[]{member.getId(), other.getId()};
+        });
+
+        // 1. 처음 조회 -> ETag
+        String etag = mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        System.out.println("\t 1. etag = " + etag);
+        assertThat(etag).isNotBlank();
+
+        // 1.1 같은 조건이라도 Smile 응답은 다른 ETag, 캐시가 구분하도록 Vary: Accept
+        MockHttpServletResponse smile = mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM")
+                        .accept(WebConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        System.out.println("\t 1.1 smile etag = " + smile.getHeader(HttpHeaders.ETAG));
+        assertThat(smile.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(smile.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM").header(HttpHeaders.IF_NONE_MATCH, smile.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isOk());
+
+        // 2. 바뀐 것이 없으면 304
+        mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // 3. 엔티티 변경 후에는 200 + 새 ETag
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, ids[0]).setAge(11));
+        String changed = mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        System.out.println("\t 3. etag = " + changed);
+        assertThat(changed).isNotEqualTo(etag);
+
+        // 4. 벌크 업데이트 후에도 200
+        memberJpaRepository.reassignTeam(List.of(ids[0]), ids[1]);
+        mockMvc.perform(get("/v2/members").param("teamName", "ETAGTEAM").header(HttpHeaders.IF_NONE_MATCH, changed))
+                .andExpect(status().isOk());
+    }
+}
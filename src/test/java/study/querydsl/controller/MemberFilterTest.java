@@ -0,0 +1,90 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <@QuerydslPredicate 필터 테스트>
+ *     - 허용한 속성/연산자만 바인딩되고, 나머지는 DB 조회 전에 400
+ *     - 조회는 요청의 트랜잭션에서 하므로 데이터를 먼저 커밋하고, 끝나면 지운다.
+ * */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberFilterTest {
+
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    void filter() throws Exception {
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = new Team("FILTERTEAM");
+            em.persist(team);
+            em.persist(new Member("Filterone", 41, team));
+            em.persist(new Member("Filtertwo", 43, team));
+            em.persist(new Member("Filterthree", 60, team));
+            return team.getId();
+        });
+
+        try {
+            search(teamId);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+                        .setParameter("teamId", teamId)
+                        .getResultList()
+                        .forEach(em::remove);
+                em.remove(em.find(Team.class, teamId));
+            });
+        }
+    }
+
+    private void search(Long teamId) throws Exception {
+        // 팀 ID = + 나이 범위 + 인덱스 정렬
+        String body = mockMvc.perform(get("/members/filter")
+                        .param("team.id", String.valueOf(teamId))
+                        .param("age", "40", "45")
+                        .param("sort", "age,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.content[0].username").value("Filtertwo"))
+                .andExpect(jsonPath("$.content[1].username").value("Filterone"))
+                .andReturn().getResponse().getContentAsString();
+        System.out.println("body = " + body);
+
+        // 회원명 앞부분 일치
+        mockMvc.perform(get("/members/filter")
+                        .param("username", "Filterth")
+                        .param("team.id", String.valueOf(teamId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("Filterthree"));
+    }
+
+    @Test
+    void rejected() throws Exception {
+        // 조건 없음 (전체 조회)
+        mockMvc.perform(get("/members/filter")).andExpect(status().isBadRequest());
+        // 너무 짧은 앞부분
+        mockMvc.perform(get("/members/filter").param("username", "F")).andExpect(status().isBadRequest());
+        // 허용하지 않은 파라미터 (팀명 조인)
+        mockMvc.perform(get("/members/filter").param("team.name", "FILTERTEAM")).andExpect(status().isBadRequest());
+        // 나이 값 3개
+        mockMvc.perform(get("/members/filter").param("age", "1", "2", "3")).andExpect(status().isBadRequest());
+        // 인덱스 없는 정렬
+        mockMvc.perform(get("/members/filter").param("age", "30").param("sort", "team.name"))
+                .andExpect(status().isBadRequest());
+    }
+}
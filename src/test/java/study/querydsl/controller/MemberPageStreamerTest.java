@@ -0,0 +1,71 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * <회원 페이지 JSON 스트리밍 테스트>
+ * */
+@SpringBootTest
+@Transactional
+class MemberPageStreamerTest {
+
+    @Autowired EntityManager em;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MemberPageStreamer memberPageStreamer;
+
+    @Test
+    void streamPage() throws Exception {
+        Team team = new Team("STREAMTEAM");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("streamMember" + i, i, team));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("STREAMTEAM");
+
+        // 1. 첫 페이지 (나이 내림차순)
+        JsonNode first = write(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        System.out.println("\t 1. first = " + first);
+        assertThat(first.get("content")).hasSize(2);
+        assertThat(first.get("content").get(0).get("username").asText()).isEqualTo("streamMember5");
+        assertThat(first.get("content").get(0).get("teamName").asText()).isEqualTo("STREAMTEAM");
+        assertThat(first.get("total").asLong()).isEqualTo(5);
+        assertThat(first.get("hasNext").asBoolean()).isTrue();
+
+        // 2. 마지막 페이지 (건수 쿼리 생략)
+        JsonNode last = write(condition, PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "age")));
+        System.out.println("\t 2. last = " + last);
+        assertThat(last.get("content")).hasSize(1);
+        assertThat(last.get("total").asLong()).isEqualTo(5);
+        assertThat(last.get("hasNext").asBoolean()).isFalse();
+
+        // 3. 허용하지 않은 정렬
+        assertThatThrownBy(() -> memberPageStreamer.stream(condition, PageRequest.of(0, 2, Sort.by("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private JsonNode write(MemberSearchCondition condition, PageRequest pageable) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberPageStreamer.stream(condition, pageable).writeTo(out);
+        return objectMapper.readTree(out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <flush 비용 비교>
+ *     - 바이트코드 향상 적용 전 : flush 시 영속성 컨텍스트의 모든 엔티티를 스냅샷과 비교
+ *     - 바이트코드 향상 적용 후 : 엔티티가 기록한 변경 필드만 확인
+ *     - 어느 쪽이든 flush 는 바뀐 회원만 update 한다. (flushUpdatesOnlyChangedMembers, 기본 test 에서 실행)
+ *
+ *     - 실행 : ./gradlew benchmark --tests "*DirtyCheckingFlushTest"
+ *             ./gradlew benchmark --tests "*DirtyCheckingFlushTest" -Penhance
+ * */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class DirtyCheckingFlushTest {
+
+    private static final int MEMBER_COUNT = 10_000;
+    private static final int ROUNDS = 20;
+    private static final int CHANGES_PER_ROUND = 10;
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+
+    /**
+     * <flush 는 바뀐 회원만 update>
+     *     - 라운드마다 CHANGES_PER_ROUND 명만 바꾸면 update 도 그만큼만 실행된다.
+     *     - 바이트코드 향상을 켜면 바뀐 회원만 변경 필드를 기록하고, flush 후에는 기록이 지워진다.
+     * */
+    @Test
+    void flushUpdatesOnlyChangedMembers() {
+        List<Member> members = loadMembers("FLUSHTEAM_SMALL", 200);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Member.class);
+
+        for (int round = 0; round < 3; round++) {
+            List<Member> changed = change(members, round);
+            if (enhanced) {
+                assertThat(members).filteredOn(DirtyCheckingFlushTest::hasDirtyAttributes).hasSameElementsAs(changed);
+            }
+
+            long updates = statistics.getEntityUpdateCount();
+            em.flush();
+            System.out.println("\t round " + round + " : enhanced = " + enhanced
+                    + ", updates = " + (statistics.getEntityUpdateCount() - updates));
+            assertThat(statistics.getEntityUpdateCount() - updates).isEqualTo(CHANGES_PER_ROUND);
+            if (enhanced) {
+                assertThat(members).noneMatch(DirtyCheckingFlushTest::hasDirtyAttributes);
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void flushCost() {
+        // MEMBER_COUNT 명의 회원을 영속성 컨텍스트에 올려둔다.
+        List<Member> members = loadMembers("FLUSHTEAM", MEMBER_COUNT);
+
+        long totalNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            change(members, round);
+
+            long start = System.nanoTime();
+            em.flush();
+            totalNanos += System.nanoTime() - start;
+        }
+
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Member.class);
+        System.out.printf("\t flush 비용 : enhanced = %s, managed = %d, avg flush = %.3f ms%n",
+                enhanced, members.size(), totalNanos / 1_000_000.0 / ROUNDS);
+    }
+
+    // 팀 1개와 회원 count 명을 저장한 후, 영속성 컨텍스트를 비우고 다시 조회한다. (테스트 트랜잭션이 끝나면 롤백)
+    private List<Member> loadMembers(String teamName, int count) {
+        Team team = new Team(teamName);
+        em.persist(team);
+        for (int i = 0; i < count; i++) {
+            em.persist(new Member("flush" + i, i % 100, team));
+        }
+        em.flush();
+        em.clear();
+
+        List<Member> members = em.createQuery("select m from Member m where m.team.name = :name", Member.class)
+                .setParameter("name", teamName)
+                .getResultList();
+        assertThat(members).hasSize(count);
+        return members;
+    }
+
+    // 라운드마다 다른 CHANGES_PER_ROUND 명의 나이를 바꾼다.
+    private static List<Member> change(List<Member> members, int round) {
+        List<Member> changed = new ArrayList<>();
+        for (int i = 0; i < CHANGES_PER_ROUND; i++) {
+            Member member = members.get((round * CHANGES_PER_ROUND + i) % members.size());
+            member.setAge(member.getAge() + 1);
+            changed.add(member);
+        }
+        return changed;
+    }
+
+    private static boolean hasDirtyAttributes(Member member) {
+        return ((SelfDirtinessTracker) member).$$_hibernate_hasDirtyAttributes();
+    }
+}
@@ -2,12 +2,14 @@ package study.querydsl.repository;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeRange;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -16,6 +18,9 @@ import study.querydsl.entity.Team;
 import javax.persistence.EntityManager;
 import java.util.List;
 
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
 @SpringBootTest
 @Transactional
 @Rollback(value = false)
@@ -25,7 +30,8 @@ class MemberJpaRepositoryTest {
     @Autowired MemberJpaRepository memberJpaRepository;
 
     JPAQueryFactory queryFactory;
-
+    // before() 에서 저장한 CTEAM (테스트를 반복하면 같은 이름의 팀이 계속 쌓인다)
+    Team teamC;
 
     @BeforeEach
     public void before() {
@@ -34,7 +40,7 @@ class MemberJpaRepositoryTest {
         // Given
         Team teamA = new Team("ATEAM");
         Team teamB = new Team("BTEAM");
-        Team teamC = new Team("CTEAM");
+        teamC = new Team("CTEAM");
 //        Team teamD = new Team("DTEAM");
 
         em.persist(teamA);
@@ -169,4 +175,144 @@ class MemberJpaRepositoryTest {
 
         }
 
-}
\ No newline at end of file
+
+    /**
+     * 빈 나이 범위 (goe > loe)
+     *      - 빈 범위만 있으면 결과 없음 (ageGoe=50, ageLoe=10 과 같음), 나이 조건 없음이 아니다.
+     *      - 다른 범위와 같이 있으면 빈 범위만 무시된다.
+     *      - OR 모드(matchAny, SQL 경로)에서는 나이 항목만 결과 없음
+     * */
+    @Test
+    public void searchEmptyAgeRanges() {
+        MemberSearchCondition empty = new MemberSearchCondition();
+        empty.setAgeRanges(List.of(new AgeRange(50, 10)));
+        MemberSearchCondition contradiction = new MemberSearchCondition();
+        contradiction.setAgeGoe(50);
+        contradiction.setAgeLoe(10);
+
+        Assertions.assertThat(AgeRange.matchesNothing(empty.ageRangeValues())).isTrue();
+        Assertions.assertThat(memberJpaRepository.search(empty)).isEmpty();
+        Assertions.assertThat(memberJpaRepository.searchByBuilder(empty)).isEmpty();
+        Assertions.assertThat(memberJpaRepository.search(contradiction)).isEmpty();
+
+        MemberSearchCondition mixed = new MemberSearchCondition();
+        mixed.setTeamName("ATEAM");
+        mixed.setAgeRanges(List.of(new AgeRange(50, 10), new AgeRange(20, 30)));
+        Assertions.assertThat(mixed.ageRangeValues()).containsExactly(new AgeRange(20, 30));
+        Assertions.assertThat(memberJpaRepository.search(mixed))
+                .extracting(MemberTeamDto::getUsername)
+                .contains("Anakin")
+                .doesNotContain("Padme", "ATEAM");
+
+        MemberSearchCondition anyOf = new MemberSearchCondition();
+        anyOf.setUsername("Yoda");
+        anyOf.setAgeRanges(List.of(new AgeRange(50, 10)));
+        anyOf.setMatchAny(true);
+        List<MemberTeamDto> result = memberJpaRepository.search(anyOf);
+        System.out.println("\t matchAny = " + result);
+        Assertions.assertThat(result)
+                .isNotEmpty()
+                .extracting(MemberTeamDto::getUsername)
+                .containsOnly("Yoda");
+    }
+
+    /**
+     * 여러 값 검색 조건
+     *      - 같은 항목 안에서는 OR (IN, 나이 범위 OR), 항목끼리는 AND
+     *      - 겹치는 나이 범위는 하나로 합쳐진다. (20~30, 25~35 → 20~35)
+     * */
+    @Test
+    public void searchMultiValued() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamNames(List.of("ATEAM", "CTEAM"));
+        condition.setAgeRanges(List.of(new AgeRange(20, 30), new AgeRange(25, 35), new AgeRange(130, 0)));
+
+        List<MemberTeamDto> result = memberJpaRepository.search(condition);
+        for (MemberTeamDto memberTeamDto : result) {
+            System.out.println("memberTeamDto = " + memberTeamDto);
+        }
+
+        // 같은 DB 를 쓰는 다른 테스트도 회원을 저장하므로, 조인 + OR 조건으로 직접 조회한 결과와 비교한다.
+        List<String> expected = queryFactory
+                .select(member.username)
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.in("ATEAM", "CTEAM")
+                        , member.age.between(20, 35).or(member.age.goe(130)))
+                .fetch();
+
+        Assertions.assertThat(condition.ageRangeValues())
+                .containsExactly(new AgeRange(20, 35), new AgeRange(130, 0));
+        Assertions.assertThat(result)
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrderElementsOf(expected)
+                .contains("Anakin", "Padme", "AsoKa", "CTEAM");
+
+        // username 과 usernames 는 합쳐서 IN 조건 (searchByBuilder 도 같은 결과)
+        MemberSearchCondition byNames = new MemberSearchCondition();
+        byNames.setUsername("Yoda");
+        byNames.setUsernames(List.of("Padme", "Yoda", "NoOne"));
+
+        List<String> expectedByNames = queryFactory
+                .select(member.username)
+                .from(member)
+                .where(member.username.in("Yoda", "Padme"))
+                .fetch();
+
+        Assertions.assertThat(memberJpaRepository.search(byNames))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrderElementsOf(expectedByNames);
+        Assertions.assertThat(memberJpaRepository.searchByBuilder(byNames))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrderElementsOf(expectedByNames);
+    }
+
+    /**
+     * 2.1 PK값 목록으로 한번에 조회하기 (multi-get)
+     *      - 요청한 순서대로, 중복/없는 id 는 제외하고 반환
+     * */
+    @Test
+    public void findAllById() {
+        List<Member> all = memberJpaRepository.findAll();
+        Long first = all.get(0).getId();
+        Long second = all.get(1).getId();
+        Long third = all.get(2).getId();
+
+        em.clear();
+
+        List<Member> result = memberJpaRepository.findAllById(List.of(third, first, -1L, second, first));
+        for (Member member : result) {
+            System.out.println("\t2.1 findAllById = " + member);
+        }
+
+        Assertions.assertThat(result)
+                .extracting(Member::getId)
+                .containsExactly(third, first, second);
+    }
+
+    /**
+     * 1.1 회원들의 팀을 한번에 바꾸기 (벌크 업데이트)
+     *      - Team.members 컬렉션을 로딩하지 않는다.
+     * */
+    @Test
+    public void reassignTeam() {
+        List<Member> all = memberJpaRepository.findAll();
+        Long first = all.get(0).getId();
+        Long second = all.get(1).getId();
+
+        long updated = memberJpaRepository.reassignTeam(List.of(first, second, first), teamC.getId());
+        System.out.println("\t1.1 reassignTeam = " + updated);
+
+        Team findTeam = em.find(Team.class, teamC.getId());
+        Member findMember = em.find(Member.class, first);
+
+        Assertions.assertThat(updated).isEqualTo(2);
+        Assertions.assertThat(findMember.getTeam().getId()).isEqualTo(teamC.getId());
+        Assertions.assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+
+        // 영속성 컨텍스트를 비우지 않는다 : 호출한 쪽이 가진 회원은 그대로 관리되고, 바뀐 회원은 새 팀으로 다시 읽힌다.
+        Assertions.assertThat(findMember).isSameAs(all.get(0));
+        Assertions.assertThat(all).allMatch(em::contains);
+        Assertions.assertThat(all.get(1).getTeam().getId()).isEqualTo(teamC.getId());
+    }
+}
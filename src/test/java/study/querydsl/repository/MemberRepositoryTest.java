@@ -14,6 +14,7 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
@@ -235,4 +236,78 @@ class MemberRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+
+    /**
+     * <팀명 → 팀 ID 캐시>
+     *     - 팀명 조건이 member.team_id 조건으로 바뀌어도 결과는 team.name 조인 결과와 같아야 한다.
+     *     - 새 팀을 저장하면 캐시가 비워져서 바로 검색된다.
+     * */
+    @Test
+    void teamNameCacheSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("CTEAM");
+
+        List<MemberTeamDto> result = memberRepository.search(condition);
+
+        Long expected = queryFactory
+                .select(QMember.member.count())
+                .from(QMember.member)
+                .join(QMember.member.team, QTeam.team)
+                .where(QTeam.team.name.eq("CTEAM"))
+                .fetchOne();
+        Assertions.assertThat((long) result.size()).isEqualTo(expected);
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(expected);
+
+        // 새 팀 저장 후 바로 검색
+        Team eteam = new Team("ETEAM");
+        em.persist(eteam);
+        em.persist(new Member("Ahsoka", 40, eteam));
+        em.flush();
+
+        condition.setTeamName("ETEAM");
+        Assertions.assertThat(memberRepository.search(condition)).isNotEmpty();
+    }
+
+    /**
+     * <OR 모드 검색 (matchAny)>
+     *     - 회원명 = Yoda 또는 팀명 = ATEAM 또는 나이 >= 200
+     *     - 항목별 UNION ALL 로 조회해도 조인 + OR 조건 결과와 같고, 같은 회원이 두번 나오지 않는다.
+     *     - 페이징/건수는 합친 결과 기준
+     *     - JDBC 로 조회하므로 먼저 flush 한다. (flush 하지 않은 회원도 결과에 포함)
+     * */
+    @Test
+    void searchMatchAny() {
+        em.persist(new Member("matchAnyUnflushed", 250));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("Yoda");
+        condition.setTeamName("ATEAM");
+        condition.setAgeGoe(200);
+        condition.setMatchAny(true);
+
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        for (MemberTeamDto memberTeamDto : result) {
+            System.out.println("memberTeamDto = " + memberTeamDto);
+        }
+
+        List<Long> expected = queryFactory
+                .select(QMember.member.id)
+                .from(QMember.member)
+                .leftJoin(QMember.member.team, QTeam.team)
+                .where(QMember.member.username.eq("Yoda")
+                        .or(QTeam.team.name.eq("ATEAM"))
+                        .or(QMember.member.age.goe(200)))
+                .fetch();
+
+        Assertions.assertThat(result)
+                .extracting(MemberTeamDto::getMemberId)
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(expected);
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        Assertions.assertThat(page.getContent()).hasSize(2);
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,128 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeRange;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <querydsl-sql 경로 테스트>
+ *     - JPQL 경로(MemberJpaRepository, 기본 설정)와 결과가 같은지 확인한다.
+ *     - 두 경로의 실행 시간 비교는 ./gradlew benchmark 로 따로 실행한다.
+ *     - 테스트 데이터는 테스트가 끝나면 롤백한다.
+ * */
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Autowired EntityManager em;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSqlRepository memberSqlRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("SQLTEAM_A");
+        Team teamB = new Team("SQLTEAM_B");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("sqlMember" + i, 10 + i % 50, i % 2 == 0 ? teamA : teamB));
+        }
+        em.persist(new Member("sqlMemberNoTeam", 30, null));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void sameResults() {
+        for (MemberSearchCondition condition : conditions()) {
+            List<MemberTeamDto> jpql = sorted(memberJpaRepository.search(condition));
+            List<MemberTeamDto> sql = sorted(memberSqlRepository.search(condition));
+            System.out.println("\t condition = " + condition + ", rows = " + sql.size());
+            assertThat(sql).isEqualTo(jpql);
+        }
+
+        List<String> teamNames = List.of("SQLTEAM_A", "SQLTEAM_B");
+        MemberSearchCondition teamless = new MemberSearchCondition();
+        teamless.setAgeGoe(20);
+        assertThat(sorted(memberSqlRepository.searchInTeams(teamless, teamNames)))
+                .isEqualTo(sorted(memberJpaRepository.searchInTeams(teamless, teamNames)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark() {
+        List<MemberSearchCondition> conditions = conditions();
+        long jpql = measure(memberJpaRepository::search, conditions);
+        long sql = measure(memberSqlRepository::search, conditions);
+        System.out.println("\t JPQL (MemberJpaRepository.search) = " + jpql / 1000 + " us/query");
+        System.out.println("\t SQL  (MemberSqlRepository.search) = " + sql / 1000 + " us/query");
+    }
+
+    // 조건마다 WARMUP 번 실행 후, ITERATIONS 번 실행한 평균 (ns)
+    private long measure(Function<MemberSearchCondition, List<MemberTeamDto>> search,
+                         List<MemberSearchCondition> conditions) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.apply(conditions.get(i % conditions.size()));
+            em.clear();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.apply(conditions.get(i % conditions.size()));
+            em.clear();
+        }
+        return (System.nanoTime() - started) / ITERATIONS;
+    }
+
+    private static List<MemberSearchCondition> conditions() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("SQLTEAM_A");
+        conditions.add(byTeam);
+
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setTeamNames(List.of("SQLTEAM_A", "SQLTEAM_B"));
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(40);
+        conditions.add(byAge);
+
+        MemberSearchCondition byUsernames = new MemberSearchCondition();
+        byUsernames.setUsernames(List.of("sqlMember1", "sqlMember2", "sqlMemberNoTeam"));
+        conditions.add(byUsernames);
+
+        MemberSearchCondition byRanges = new MemberSearchCondition();
+        byRanges.setTeamName("SQLTEAM_B");
+        byRanges.setAgeRanges(List.of(new AgeRange(10, 15), new AgeRange(50, 0)));
+        conditions.add(byRanges);
+
+        MemberSearchCondition noTeam = new MemberSearchCondition();
+        noTeam.setTeamName("NO_SUCH_TEAM");
+        conditions.add(noTeam);
+        return conditions;
+    }
+
+    private static List<MemberTeamDto> sorted(List<MemberTeamDto> rows) {
+        List<MemberTeamDto> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        return sorted;
+    }
+}
@@ -1,6 +1,7 @@
 package study.querydsl.repository;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +13,17 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.QuerydslCountQuery;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
 
 @SpringBootTest
 @Transactional
@@ -26,6 +32,8 @@ class MemberTestRepositoryTest {
 
     @Autowired
     EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
     @Autowired MemberTestRepository memberTestRepository;
     JPAQueryFactory queryFactory;
 
@@ -132,4 +140,140 @@ class MemberTestRepositoryTest {
             System.out.println(" \t 05. applyPagination2 = " + member);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchPageByIds() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(150);
+
+        PageRequest pageRequest = PageRequest.of(0,3);
+
+        Page<Member> members = memberTestRepository.searchPageByIds(condition, pageRequest);
+        for (Member member : members) {
+            System.out.println(" \t 06. searchPageByIds = " + member + ", team = " + member.getTeam());
+        }
+
+        // id 순서대로 정렬되어야 한다.
+        List<Member> content = members.getContent();
+        for (int i = 1; i < content.size(); i++) {
+            assertTrue(content.get(i - 1).getId() < content.get(i).getId());
+        }
+        assertEquals(3, content.size());
+    }
+
+    @Test
+    void derivedCountQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(50);
+
+        PageRequest pageRequest = PageRequest.of(0,2);
+
+        // 자동 생성된 카운트 쿼리 (orderBy, 팀 조인 없이 수행된다)
+        Page<Member> members = memberTestRepository.applyPagination(condition, pageRequest);
+
+        Long expected = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.age.goe(20), member.age.loe(50))
+                .fetchOne();
+
+        System.out.println(" \t 07. derivedCountQuery = " + members.getTotalElements());
+        assertEquals(expected.longValue(), members.getTotalElements());
+    }
+
+    @Test
+    void derivedCountQueryKeepsInnerFetchJoinAndDistinct() {
+        // inner fetch join 은 팀 없는 회원을 제외하므로 카운트 쿼리에도 inner join 으로 남는다.
+        em.persist(new Member("countNoTeam", 30, null));
+        em.flush();
+        em.clear();
+
+        long innerFetch = QuerydslCountQuery.fetchCount(em, queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin());
+        long withTeam = queryFactory
+                .select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .fetchOne();
+        System.out.println(" \t 09. innerFetchJoinCount = " + innerFetch);
+        assertEquals(withTeam, innerFetch);
+
+        // 루트가 아닌 값을 select distinct 하면 값의 건수를 센다.
+        long distinctNames = QuerydslCountQuery.fetchCount(em, queryFactory
+                .select(member.username)
+                .distinct()
+                .from(member));
+        long expected = queryFactory
+                .select(member.username)
+                .distinct()
+                .from(member)
+                .fetch()
+                .size();
+        System.out.println(" \t 09. distinctUsernameCount = " + distinctNames);
+        assertEquals(expected, distinctNames);
+    }
+
+    @Test
+    void searchPageWithExpand() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0,3);
+
+        // 팀을 요청하지 않으면 팀은 로딩되지 않는다.
+        Page<Member> lazy = memberTestRepository.searchPageWithExpand(condition, pageRequest, Set.of());
+        for (Member member : lazy) {
+            assertFalse(emf.getPersistenceUnitUtil().isLoaded(member.getTeam()));
+        }
+        em.clear();
+
+        // expand=team 이면 한번의 쿼리로 팀까지 로딩된다.
+        Page<Member> expanded = memberTestRepository.searchPageWithExpand(condition, pageRequest, Set.of("team"));
+        for (Member member : expanded) {
+            System.out.println(" \t 08. searchPageWithExpand = " + member + ", team = " + member.getTeam());
+            assertTrue(emf.getPersistenceUnitUtil().isLoaded(member.getTeam()));
+        }
+
+        // 컬렉션이나 없는 속성은 요청할 수 없다.
+        assertThrows(IllegalArgumentException.class,
+                () -> memberTestRepository.searchPageWithExpand(condition, pageRequest, Set.of("unknown")));
+    }
+
+    @Test
+    void rejectMatchAny() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("Yoda");
+        condition.setTeamName("ATEAM");
+        condition.setMatchAny(true);
+
+        // 엔티티 조회는 and 로만 검색하므로 OR 모드는 거절한다.
+        assertThrows(IllegalArgumentException.class,
+                () -> memberTestRepository.applyPagination(condition, PageRequest.of(0, 2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> memberTestRepository.searchPageByIds(condition, PageRequest.of(0, 2)));
+    }
+
+    /**
+     * <쓰기 트랜잭션 안의 페이징 : 읽기 전용 힌트를 붙이지 않는다>
+     *     - 조회한 엔티티를 수정하면 변경 감지로 반영되어야 한다.
+     * */
+    @Test
+    void paginationInWriteTransactionIsNotReadOnly() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("ATEAM");
+
+        Page<Member> members = memberTestRepository.applyPagination(condition, PageRequest.of(0, 10));
+        Session session = em.unwrap(Session.class);
+        assertFalse(members.getContent().isEmpty());
+        for (Member member : members) {
+            assertFalse(session.isReadOnly(member));
+        }
+
+        Member first = members.getContent().get(0);
+        first.setAge(first.getAge() + 1);
+        em.flush();
+        em.clear();
+        assertEquals(first.getAge(), em.find(Member.class, first.getId()).getAge());
+    }
+}
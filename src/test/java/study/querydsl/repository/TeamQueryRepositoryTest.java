@@ -0,0 +1,78 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback(value = false)
+class TeamQueryRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired TeamQueryRepository teamQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        // Given
+        Team teamA = new Team("ATEAM");
+        Team teamB = new Team("BTEAM");
+        Team teamC = new Team("CTEAM");
+        Team teamD = new Team("DTEAM");     // 회원이 없는 팀
+
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+        em.persist(teamD);
+
+        em.persist(new Member("Yoda"  , 224, teamB));
+        em.persist(new Member("Qwigon",125, teamC));
+        em.persist(new Member("Obiwan", 83 , teamB));
+        em.persist(new Member("Anakin", 28 , teamA));
+        em.persist(new Member("AsoKa" ,22, teamC));
+        em.persist(new Member("Padme" , 32 , teamA));
+
+        // 영속성컨텍스트에 있는 쿼리를 즉시 수행한다.
+        em.flush();
+        // 저장 후 영속성컨텍스트에 있는 캐시 삭제
+        em.clear();
+    }
+
+    /**
+     * <팀 + 소속 회원 목록>
+     *     - 팀 id 페이징 1번, team left join member 조회 1번
+     *     - 회원이 없는 팀은 빈 목록
+     * */
+    @Test
+    void searchTeamsWithMembers() {
+        Page<TeamMembersDto> teams = teamQueryRepository.searchTeamsWithMembers(
+                PageRequest.of(0, 100, Sort.by("id")));
+
+        for (TeamMembersDto dto : teams) {
+            System.out.println(" \t teamMembers = " + dto);
+        }
+
+        assertThat(teams.getContent())
+                .extracting(TeamMembersDto::getTeamId)
+                .isSorted();
+        assertThat(teams.getContent())
+                .filteredOn(dto -> dto.getName().equals("DTEAM"))
+                .allSatisfy(dto -> assertThat(dto.getMembers()).isEmpty());
+        assertThat(teams.getContent())
+                .filteredOn(dto -> dto.getName().equals("ATEAM"))
+                .allSatisfy(dto -> assertThat(dto.getMembers()).isNotEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.change.ChangeFeedPoller;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <기본 DB → 샤드 동기화 테스트>
+ *     - 변경은 커밋된 후에 변경 피드로 전달되므로 @Transactional 을 붙이지 않는다.
+ *     - 주기 폴링이 끼어들지 않도록 주기를 길게 잡고, poll() 을 직접 호출한다.
+ *     - 테스트에서 바꾼 회원만 확인하고, 만든 팀/회원은 지운다. (기본 DB 는 다른 테스트와 같이 사용)
+ * */
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.urls=jdbc:h2:mem:member_sync_shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:member_sync_shard1;DB_CLOSE_DELAY=-1",
+        "change-feed.poll-interval-ms=600000"})
+class MemberShardSyncTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired ChangeFeedPoller changeFeedPoller;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberShardSync memberShardSync;
+    @Autowired ShardedMemberRepository shardedMemberRepository;
+
+    @Test
+    void writesReachShards() {
+        String username = "shardSync" + System.nanoTime();
+
+        // 1. JPA 저장 -> 샤드에 저장
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team(username + "_A");
+            Team teamB = new Team(username + "_B");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member(username, 10, teamA);
+            em.persist(member);
+            return new Long[]{member.getId(), teamB.getId()};
+        });
+        drain();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        List<MemberTeamDto> saved = memberRepository.search(condition);
+        System.out.println("\t 1. saved = " + saved);
+        assertThat(saved).extracting(MemberTeamDto::getTeamName).containsExactly(username + "_A");
+
+        // 2. 벌크 팀 변경 -> 샤드에서도 팀이 바뀜 (다른 샤드로 이동할 수 있음)
+        memberJpaRepository.reassignTeam(List.of(ids[0]), ids[1]);
+        drain();
+
+        List<MemberTeamDto> moved = memberRepository.search(condition);
+        System.out.println("\t 2. moved = " + moved);
+        assertThat(moved).extracting(MemberTeamDto::getTeamName).containsExactly(username + "_B");
+
+        // 3. 삭제 -> 샤드에서도 삭제
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, ids[0])));
+        drain();
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("select t from Team t where t.name like :name", Team.class)
+                .setParameter("name", username + "_%")
+                .getResultList()
+                .forEach(em::remove));
+        drain();
+    }
+
+    /**
+     * <전체 복사 : 기본 DB 에 없는 샤드 행(이전 실행에서 남은 행)을 지운다>
+     * */
+    @Test
+    void backfillRemovesGhostRows() {
+        String username = "shardGhost" + System.nanoTime();
+
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = new Team(username + "_A");
+            em.persist(team);
+            Member member = new Member(username, 10, team);
+            em.persist(member);
+            return new Long[]{member.getId(), team.getId()};
+        });
+        drain();
+
+        // 기본 DB 에 없는 회원 (기본 DB 는 시작할 때마다 다시 만들어지고, 샤드는 남아 있는 경우)
+        shardedMemberRepository.saveTeam(-ids[1], username + "_GHOST");
+        shardedMemberRepository.saveMember(-ids[0], username, 20, -ids[1]);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        System.out.println("\t before = " + memberRepository.search(condition));
+        assertThat(memberRepository.search(condition)).hasSize(2);
+
+        memberShardSync.backfill();
+
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        System.out.println("\t after = " + result);
+        assertThat(result).extracting(MemberTeamDto::getMemberId).containsExactly(ids[0]);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.remove(em.find(Member.class, ids[0]));
+            em.remove(em.find(Team.class, ids[1]));
+        });
+        drain();
+    }
+
+    private void drain() {
+        while (changeFeedPoller.poll() > 0) {
+            // 쌓인 이벤트를 모두 받을 때까지
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.repository.shard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.QueryGovernor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.urls=jdbc:h2:mem:member_shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:member_shard1;DB_CLOSE_DELAY=-1",
+        "sharding.sync.enabled=false",
+        "change-feed.enabled=false"})
+class ShardedMemberRepositoryTest {
+
+    @Autowired MemberShards shards;
+    @Autowired ShardedMemberRepository shardedMemberRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired QueryGovernor queryGovernor;
+
+    @BeforeEach
+    public void before() {
+        // 팀 1, 3 -> 1번 샤드 / 팀 2 -> 0번 샤드
+        shardedMemberRepository.saveTeam(1L, "ATEAM");
+        shardedMemberRepository.saveTeam(2L, "BTEAM");
+        shardedMemberRepository.saveTeam(3L, "CTEAM");
+
+        shardedMemberRepository.saveMember(1L, "Anakin", 28, 1L);
+        shardedMemberRepository.saveMember(2L, "Padme", 32, 1L);
+        shardedMemberRepository.saveMember(3L, "Yoda", 224, 2L);
+        shardedMemberRepository.saveMember(4L, "Obiwan", 83, 2L);
+        shardedMemberRepository.saveMember(5L, "Qwigon", 125, 3L);
+        shardedMemberRepository.saveMember(6L, "AsoKa", 22, 3L);
+    }
+
+    /**
+     * <팀 ID 로 샤드 나누기>
+     *     - 회원은 팀 샤드에만 있고, 팀은 모든 샤드에 있다.
+     * */
+    @Test
+    void partitionByTeam() {
+        Long shard0 = shards.shard(0).queryForObject("select count(*) from member", Long.class);
+        Long shard1 = shards.shard(1).queryForObject("select count(*) from member", Long.class);
+        System.out.println("shard0 = " + shard0 + ", shard1 = " + shard1);
+
+        assertThat(shard0).isEqualTo(2L);
+        assertThat(shard1).isEqualTo(4L);
+        assertThat(shards.shard(0).queryForObject("select count(*) from team", Long.class)).isEqualTo(3L);
+    }
+
+    /**
+     * <팀 조건 없는 검색 : 모든 샤드 조회 후 병합>
+     * */
+    @Test
+    void scatterGatherSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(25);
+
+        List<MemberTeamDto> result = shardedMemberRepository.search(condition);
+        result.forEach(dto -> System.out.println("dto = " + dto));
+
+        assertThat(result).extracting("memberId").containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    /**
+     * <페이징 병합 : 샤드를 넘나드는 정렬과 전체 건수>
+     * */
+    @Test
+    void scatterGatherPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Order.desc("age")));
+
+        Page<MemberTeamDto> page = shardedMemberRepository.searchPageComplex(condition, pageRequest);
+        page.getContent().forEach(dto -> System.out.println("dto = " + dto));
+
+        // 나이 내림차순 : Yoda(224), Qwigon(125), Obiwan(83), Padme(32), Anakin(28), AsoKa(22)
+        assertThat(page.getContent()).extracting("username").containsExactly("Obiwan", "Padme");
+        assertThat(page.getTotalElements()).isEqualTo(6L);
+    }
+
+    /**
+     * <팀 조건 검색 : 팀 샤드 1개만 조회>
+     * */
+    @Test
+    void routedSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("BTEAM");
+
+        Page<MemberTeamDto> page = shardedMemberRepository.searchPageCount(condition, PageRequest.of(0, 10));
+        page.getContent().forEach(dto -> System.out.println("dto = " + dto));
+
+        assertThat(page.getContent()).extracting("username").containsExactly("Yoda", "Obiwan");
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+
+        condition.setTeamName("NOTEAM");
+        assertThat(shardedMemberRepository.search(condition)).isEmpty();
+    }
+
+    /**
+     * <sharding.enabled=true 이면 MemberRepository 검색도 샤드로 간다>
+     * */
+    @Test
+    void memberRepositoryRoutesToShards() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("BTEAM");
+
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        result.forEach(dto -> System.out.println("dto = " + dto));
+        assertThat(result).extracting("username").containsExactly("Yoda", "Obiwan");
+
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+    }
+
+    /**
+     * <팀 변경 : 다른 샤드로 이동>
+     * */
+    @Test
+    void moveMemberBetweenShards() {
+        shardedMemberRepository.saveMember(3L, "Yoda", 224, 1L);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("Yoda");
+        List<MemberTeamDto> result = shardedMemberRepository.search(condition);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTeamName()).isEqualTo("ATEAM");
+        assertThat(shards.shard(0).queryForObject("select count(*) from member where member_id = 3", Long.class))
+                .isZero();
+
+        shardedMemberRepository.saveMember(3L, "Yoda", 224, 2L);
+    }
+
+    /**
+     * <여러 샤드 조회 : 요청의 쿼리 제한을 조회 스레드에도 적용>
+     * */
+    @Test
+    void scatterPassesQueryLimits() {
+        queryGovernor.enter(0, 3);
+        try {
+            List<Integer> maxRows = shards.scatter(List.of(0, 1), shard -> queryGovernor.maxRows());
+            System.out.println("maxRows = " + maxRows);
+            assertThat(maxRows).containsExactly(3, 3);
+
+            List<MemberTeamDto> result = shardedMemberRepository.search(new MemberSearchCondition());
+            assertThat(result).hasSize(3);
+            assertThat(queryGovernor.isTruncated()).isTrue();
+        } finally {
+            queryGovernor.exit();
+        }
+    }
+}
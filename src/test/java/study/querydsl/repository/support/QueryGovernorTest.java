@@ -0,0 +1,119 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * <쿼리 제한 테스트>
+ *     - 최대 행 수는 테스트에서 enter() 로 작게 바꿔서 확인한다.
+ * */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@Rollback(value = false)
+class QueryGovernorTest {
+
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+    @Autowired QueryGovernor queryGovernor;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamG = new Team("GOVERNTEAM");
+        em.persist(teamG);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("governor" + i, 40 + i, teamG));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        queryGovernor.exit();
+    }
+
+    @Test
+    void truncateList() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("GOVERNTEAM");
+
+        long expected = new JPAQueryFactory(em)
+                .select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq("GOVERNTEAM"))
+                .fetchOne();
+
+        // 1. 최대 행 수 이하 -> 그대로
+        queryGovernor.enter(0, (int) expected);
+        List<MemberTeamDto> all = memberRepository.search(condition);
+        System.out.println("\t 1. rows = " + all.size() + ", truncated = " + queryGovernor.isTruncated());
+        assertThat(all).hasSize((int) expected);
+        assertThat(queryGovernor.isTruncated()).isFalse();
+
+        // 2. 최대 행 수 초과 -> 잘라내고 표시
+        long truncations = queryGovernor.truncations();
+        queryGovernor.enter(0, 2);
+        List<MemberTeamDto> capped = memberRepository.search(condition);
+        System.out.println("\t 2. rows = " + capped.size() + ", truncated = " + queryGovernor.isTruncated());
+        assertThat(capped).hasSize(2);
+        assertThat(queryGovernor.isTruncated()).isTrue();
+        assertThat(queryGovernor.truncations()).isEqualTo(truncations + 1);
+    }
+
+    @Test
+    void rejectPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        long offsetRejections = queryGovernor.rejections().getOrDefault(QueryGovernor.REASON_OFFSET, 0L);
+
+        // 1. 깊은 offset
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(100_000, 10)))
+                .isInstanceOf(QueryRejectedException.class)
+                .extracting("reason").isEqualTo(QueryGovernor.REASON_OFFSET);
+        assertThat(queryGovernor.rejections().get(QueryGovernor.REASON_OFFSET)).isEqualTo(offsetRejections + 1);
+
+        // 2. 최대 행 수보다 큰 페이지
+        queryGovernor.enter(0, 5);
+        assertThatThrownBy(() -> memberRepository.searchPageCount(condition, PageRequest.of(0, 6)))
+                .isInstanceOf(QueryRejectedException.class)
+                .extracting("reason").isEqualTo(QueryGovernor.REASON_PAGE_SIZE);
+
+        // 3. 제한 안이면 그대로 조회
+        assertThat(memberRepository.searchPageCount(condition, PageRequest.of(0, 5)).getContent()).hasSizeLessThanOrEqualTo(5);
+        System.out.println("\t rejections = " + queryGovernor.rejections());
+    }
+
+    @Test
+    void rejectDeepOffsetWith400() throws Exception {
+        mockMvc.perform(get("/v2/members").param("page", "100000").param("size", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v2/members").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.AutocompleteDto;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.entity.ChangeOperation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * <자동완성 인덱스 테스트>
+ *     - 인덱스는 애플리케이션 전체에서 하나이므로, 롤백될 데이터로 만들지 않도록 테스트 데이터를 먼저 커밋한다. (@Transactional 없음)
+ *     - 커밋된 데이터는 계속 쌓이므로 실행할 때마다 다른 이름(prefix)을 쓴다.
+ * */
+@SpringBootTest
+class AutocompleteIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired AutocompleteIndex autocompleteIndex;
+
+    @Test
+    void suggestAndIncrementalUpdate() {
+        String prefix = "auto" + System.nanoTime();
+        Long leeId = transactionTemplate.execute(status -> {
+            Team team = new Team(prefix + "Team");
+            em.persist(team);
+            em.persist(new Member(prefix + "Kim", 10, team));
+            em.persist(new Member(prefix + "Kim", 20, team));
+            Member lee = new Member(prefix + "Lee", 30, team);
+            em.persist(lee);
+            return lee.getId();
+        });
+
+        // 1. 전체 만들기 -> 같은 이름이 많은 순
+        autocompleteIndex.rebuild();
+        List<AutocompleteDto> result = autocompleteIndex.suggest(prefix.toUpperCase(), 10);
+        System.out.println("\t 1. suggest = " + result);
+        assertThat(result)
+                .extracting(AutocompleteDto::getText, AutocompleteDto::getType, AutocompleteDto::getCount)
+                .startsWith(tuple(prefix + "Kim", AutocompleteIndex.MEMBER, 2))
+                .contains(tuple(prefix + "Lee", AutocompleteIndex.MEMBER, 1),
+                          tuple(prefix + "Team", AutocompleteIndex.TEAM, 1));
+
+        // 2. 변경 피드 반영 -> 예전 이름은 빠지고 새 이름이 들어감
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Member.class, leeId).setUsername(prefix + "Park"));
+        autocompleteIndex.onChanges(List.of(
+                new ChangeEvent("Member", leeId, ChangeOperation.UPDATE, LocalDateTime.now())));
+
+        List<AutocompleteDto> updated = autocompleteIndex.suggest(prefix + "P", 10);
+        System.out.println("\t 2. suggest = " + updated);
+        assertThat(updated).extracting(AutocompleteDto::getText).containsExactly(prefix + "Park");
+        assertThat(autocompleteIndex.suggest(prefix + "Lee", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksWholePrefixRange() {
+        // 사전 순으로 앞에 있는 이름이 1000개를 넘어도, 뒤에 있는 많은 이름이 1등이어야 한다.
+        String prefix = "rank" + System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 1500; i++) {
+                em.persist(new Member(prefix + "a" + i, 10));
+            }
+            em.persist(new Member(prefix + "z", 10));
+            em.persist(new Member(prefix + "z", 20));
+        });
+
+        autocompleteIndex.rebuild();
+        List<AutocompleteDto> result = autocompleteIndex.suggest(prefix, 3);
+        System.out.println("\t suggest = " + result);
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0).getText()).isEqualTo(prefix + "z");
+        assertThat(result.get(0).getCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.repository.TeamIdCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <StatelessSession 대량 처리 테스트>
+ *     - 대량 처리는 chunk 단위로 직접 커밋하므로 @Transactional 을 붙이지 않는다.
+ *     - 팀명에 실행마다 다른 prefix 를 붙이고, 끝나면 저장한 팀/회원을 지운다. (기본 DB 는 다른 테스트와 같이 사용)
+ * */
+@SpringBootTest
+class MemberBulkServiceTest {
+
+    @Autowired MemberBulkService memberBulkService;
+    @Autowired TeamIdCache teamIdCache;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "BULKTEAM" + System.nanoTime() + "_";
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+    }
+
+    @Test
+    void seedReAgeExport() {
+        long start = System.currentTimeMillis();
+        long inserted = memberBulkService.seed(List.of(prefix + "1", prefix + "2"), 5_000);
+        System.out.println("\t 1. seed = " + inserted + " (" + (System.currentTimeMillis() - start) + " ms)");
+        assertThat(inserted).isEqualTo(5_000);
+
+        long updated = memberBulkService.reAge(prefix + "1", 1);
+        System.out.println("\t 2. reAge = " + updated);
+        assertThat(updated).isEqualTo(2_500);
+
+        AtomicLong bulkMembers = new AtomicLong();
+        long exported = memberBulkService.export(dto -> {
+            if (dto.getTeamName() != null && dto.getTeamName().startsWith(prefix)) {
+                bulkMembers.incrementAndGet();
+            }
+        });
+        System.out.println("\t 3. export = " + exported);
+        assertThat(bulkMembers.get()).isEqualTo(5_000);
+    }
+
+    /**
+     * <대량 저장한 팀도 팀 ID 캐시에 반영>
+     *     - StatelessSession 은 TeamIdCacheListener 가 호출되지 않으므로 커밋 후 직접 캐시에서 뺀다.
+     * */
+    @Test
+    void seedEvictsTeamIdCache() {
+        String teamName = prefix + "CACHE";
+        memberBulkService.seed(List.of(teamName), 1);
+        List<Long> cached = teamIdCache.findIdsByName(teamName);
+        assertThat(cached).hasSize(1);
+
+        // 같은 팀명으로 한번 더 저장 -> 캐시된 목록이 아니라 팀 2개가 조회되어야 한다.
+        memberBulkService.seed(List.of(teamName), 1);
+        List<Long> reloaded = teamIdCache.findIdsByName(teamName);
+        System.out.println("\t cached = " + cached + ", reloaded = " + reloaded);
+        assertThat(reloaded).hasSize(2).containsAll(cached);
+    }
+}
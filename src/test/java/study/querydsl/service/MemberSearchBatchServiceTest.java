@@ -0,0 +1,131 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.support.QueryGovernor;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <회원 일괄 검색 테스트>
+ *     - 검색은 다른 스레드(트랜잭션)에서 실행되므로 데이터를 먼저 커밋한다. (@Transactional 을 붙이지 않음)
+ * */
+@SpringBootTest
+class MemberSearchBatchServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSearchBatchService memberSearchBatchService;
+    @Autowired QueryGovernor queryGovernor;
+
+    @Test
+    void searchBatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("BATCHTEAM_A");
+            Team teamB = new Team("BATCHTEAM_B");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("batchMember" + i, 10 + i, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+
+        // 0, 2 : 같은 조건 / 0, 1, 3 : 팀명만 다른 조건 (쿼리 1번) / 4 : 단독 조건
+        List<MemberSearchCondition> conditions = List.of(
+                condition(null, "BATCHTEAM_A", 0),
+                condition(null, "BATCHTEAM_B", 0),
+                condition(null, "BATCHTEAM_A", 0),
+                condition(null, "NO_SUCH_TEAM", 0),
+                condition("batchMember3", null, 0));
+
+        Map<Integer, MemberSearchResult> results = memberSearchBatchService.search(conditions);
+        results.forEach((index, result) -> System.out.println("\t" + index + " = " + result));
+
+        assertThat(results).containsOnlyKeys(0, 1, 2, 3, 4);
+        for (int i = 0; i < conditions.size(); i++) {
+            assertThat(results.get(i).getContent())
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(conditions.get(i)));
+            assertThat(results.get(i).isTruncated()).isFalse();
+        }
+        assertThat(results.get(0).getContent()).hasSize(5);
+        assertThat(results.get(3).getContent()).isEmpty();
+    }
+
+    /**
+     * <팀명만 다른 조건 : 나눈 후 조건마다 최대 행 수로 자르기>
+     *     - 최대 행 수 3 : A 팀(5명)은 잘리고, C 팀(2명)은 그대로
+     *     - A, B 팀(5명씩)은 합친 쿼리가 팀 수 x 4 건 제한에 걸리므로, 빠졌을 수 있는 팀은 따로 검색한다.
+     * */
+    @Test
+    void searchBatchCapsEachCondition() {
+        String prefix = "BATCHCAP" + System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team(prefix + "_A");
+            Team teamB = new Team(prefix + "_B");
+            Team teamC = new Team(prefix + "_C");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(teamC);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member(prefix + "_a" + i, 20, teamA));
+                em.persist(new Member(prefix + "_b" + i, 20, teamB));
+            }
+            for (int i = 0; i < 2; i++) {
+                em.persist(new Member(prefix + "_c" + i, 20, teamC));
+            }
+        });
+
+        queryGovernor.enter(0, 3);
+        try {
+            Map<Integer, MemberSearchResult> results = memberSearchBatchService.search(List.of(
+                    condition(null, prefix + "_A", 0),
+                    condition(null, prefix + "_C", 0)));
+            results.forEach((index, result) ->
+                    System.out.println("\t" + index + " = " + result.getContent() + ", truncated = " + result.isTruncated()));
+
+            assertThat(results.get(0).getContent()).hasSize(3);
+            assertThat(results.get(0).isTruncated()).isTrue();
+            assertThat(results.get(1).getContent()).hasSize(2);
+            assertThat(results.get(1).isTruncated()).isFalse();
+            assertThat(queryGovernor.isTruncated()).isTrue();
+
+            results = memberSearchBatchService.search(List.of(
+                    condition(null, prefix + "_A", 0),
+                    condition(null, prefix + "_B", 0)));
+            for (MemberSearchResult result : results.values()) {
+                assertThat(result.getContent()).hasSize(3);
+                assertThat(result.isTruncated()).isTrue();
+            }
+        } finally {
+            queryGovernor.exit();
+            transactionTemplate.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like :prefix")
+                        .setParameter("prefix", prefix + "%")
+                        .executeUpdate();
+                em.createQuery("delete from Team t where t.name like :prefix")
+                        .setParameter("prefix", prefix + "%")
+                        .executeUpdate();
+            });
+        }
+    }
+
+    private MemberSearchCondition condition(String username, String teamName, int ageGoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        return condition;
+    }
+}
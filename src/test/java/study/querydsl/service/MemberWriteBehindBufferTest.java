@@ -0,0 +1,96 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <write-behind 버퍼 테스트>
+ *     - 주기 반영이 테스트 도중 끼어들지 않도록 주기를 길게 잡고, flush() 를 직접 호출한다.
+ *     - flush() 는 새 트랜잭션으로 커밋하므로 테스트 데이터도 TransactionTemplate 으로 먼저 커밋한다. (@Transactional 없음)
+ * */
+@SpringBootTest(properties = {
+        "member.write-behind.enabled=true",
+        "member.write-behind.flush-interval-ms=600000",
+        "member.write-behind.max-pending=100000"
+})
+class MemberWriteBehindBufferTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberWriteBehindBuffer memberWriteBehindBuffer;
+
+    @Test
+    void coalesceAndFlush() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Team teamA = new Team("WBTEAM_A");
+        Team teamB = new Team("WBTEAM_B");
+        Member member = new Member("wbMember", 10, teamA);
+        Member other = new Member("wbMember2", 10, teamA);
+        tx.executeWithoutResult(status -> {
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(member);
+            em.persist(other);
+        });
+
+        // 1. 같은 회원을 여러번 변경 -> 1건으로 합쳐짐
+        for (int age = 11; age <= 20; age++) {
+            memberWriteBehindBuffer.changeAge(member.getId(), age);
+        }
+        memberWriteBehindBuffer.changeTeam(member.getId(), teamB.getId());
+        assertThat(memberWriteBehindBuffer.pendingCount()).isEqualTo(1);
+
+        // 2. 반영 전 조회 (read-your-writes)
+        MemberTeamDto beforeFlush = memberWriteBehindBuffer.findMember(member.getId()).orElseThrow();
+        System.out.println("\t 2. beforeFlush = " + beforeFlush);
+        assertThat(beforeFlush.getAge()).isEqualTo(20);
+        assertThat(beforeFlush.getTeamName()).isEqualTo("WBTEAM_B");
+
+        // 3. 반영 후 DB 조회
+        int flushed = memberWriteBehindBuffer.flush();
+        Member findMember = findMember(tx, member.getId());
+        System.out.println("\t 3. flushed = " + flushed + ", findMember = " + findMember);
+
+        assertThat(flushed).isEqualTo(1);
+        assertThat(memberWriteBehindBuffer.pendingCount()).isZero();
+        assertThat(findMember.getAge()).isEqualTo(20);
+        assertThat(findMember.getTeam().getId()).isEqualTo(teamB.getId());
+
+        // 4. 바깥 트랜잭션이 롤백되어도 반영한 변경은 남는다.
+        memberWriteBehindBuffer.changeAge(member.getId(), 30);
+        tx.executeWithoutResult(status -> {
+            memberWriteBehindBuffer.flush();
+            status.setRollbackOnly();
+        });
+        Member afterRollback = findMember(tx, member.getId());
+        System.out.println("\t 4. afterRollback = " + afterRollback);
+        assertThat(afterRollback.getAge()).isEqualTo(30);
+
+        // 5. 없는 팀으로 바꾸는 변경은 버리고, 나머지 변경은 반영한다. (버퍼에 남지 않음)
+        memberWriteBehindBuffer.changeTeam(member.getId(), -1L);
+        memberWriteBehindBuffer.changeAge(other.getId(), 40);
+        int partial = memberWriteBehindBuffer.flush();
+        Member badTeam = findMember(tx, member.getId());
+        Member valid = findMember(tx, other.getId());
+        System.out.println("\t 5. flushed = " + partial + ", badTeam = " + badTeam + ", valid = " + valid);
+        assertThat(partial).isEqualTo(1);
+        assertThat(memberWriteBehindBuffer.pendingCount()).isZero();
+        assertThat(badTeam.getTeam().getId()).isEqualTo(teamB.getId());
+        assertThat(valid.getAge()).isEqualTo(40);
+    }
+
+    // 커밋된 값을 새 영속성 컨텍스트에서 조회
+    private Member findMember(TransactionTemplate tx, Long memberId) {
+        return tx.execute(status -> em.find(Member.class, memberId));
+    }
+}
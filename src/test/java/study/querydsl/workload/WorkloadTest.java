@@ -0,0 +1,116 @@
+package study.querydsl.workload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * <작업 종류 (bulkhead) 테스트>
+ *     - 커넥션 풀 선택과 실행 허가만 확인한다. (스프링 컨텍스트 없음)
+ * */
+class WorkloadTest {
+
+    @Test
+    void routing() throws Exception {
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+
+        // 1. 지정하지 않으면 INTERACTIVE
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(Workload.INTERACTIVE);
+
+        // 2. 지정한 동안만 EXPORT
+        Object key = WorkloadContext.call(Workload.EXPORT, dataSource::determineCurrentLookupKey);
+        assertThat(key).isEqualTo(Workload.EXPORT);
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(Workload.INTERACTIVE);
+
+        // 3. 다른 스레드로 넘긴 작업은 제출한 스레드의 작업 종류
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Object propagated = WorkloadContext.call(Workload.BULK_WRITE, () -> {
+                try {
+                    return executor.submit(WorkloadContext.wrap(dataSource::determineCurrentLookupKey)).get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            System.out.println("\t propagated = " + propagated);
+            assertThat(propagated).isEqualTo(Workload.BULK_WRITE);
+            assertThat(executor.submit(dataSource::determineCurrentLookupKey).get()).isEqualTo(Workload.INTERACTIVE);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void admission() throws Exception {
+        // p99 기준 100ms, 대기 50ms, EXPORT 평소 4개 / 느릴 때 1개, BULK_WRITE 느릴 때 0개 (기본값)
+        WorkloadAdmission admission = new WorkloadAdmission(100, 50, 64, new MockEnvironment());
+
+        // 1. 화면 검색이 빠르면 max-concurrent 까지 허가
+        for (int i = 0; i < 64; i++) {
+            admission.recordInteractive(10);
+        }
+        assertThat(admission.isDegraded()).isFalse();
+        for (int i = 0; i < 4; i++) {
+            assertThat(admission.tryAcquire(Workload.EXPORT)).isTrue();
+        }
+        assertThat(admission.tryAcquire(Workload.EXPORT)).isFalse();
+        for (int i = 0; i < 4; i++) {
+            admission.release(Workload.EXPORT);
+        }
+
+        // 2. 화면 검색이 느려지면 degraded-concurrent 까지만 허가
+        for (int i = 0; i < 64; i++) {
+            admission.recordInteractive(1000);
+        }
+        Thread.sleep(250);      // p99 재계산 간격
+        System.out.println("\t p99 = " + admission.interactiveP99Ms());
+        assertThat(admission.isDegraded()).isTrue();
+        assertThat(admission.tryAcquire(Workload.EXPORT)).isTrue();
+        assertThat(admission.tryAcquire(Workload.EXPORT)).isFalse();
+        assertThat(admission.tryAcquire(Workload.BULK_WRITE)).isFalse();
+        admission.release(Workload.EXPORT);
+
+        // 3. 화면 검색, 내부 백그라운드 작업은 항상 허가
+        assertThat(admission.tryAcquire(Workload.INTERACTIVE)).isTrue();
+        assertThat(admission.tryAcquire(Workload.BACKGROUND)).isTrue();
+        assertThat(admission.shed()).doesNotContainKey(Workload.BACKGROUND);
+        System.out.println("\t shed = " + admission.shed());
+        assertThat(admission.shed().get(Workload.EXPORT)).isEqualTo(2L);
+        assertThat(admission.shed().get(Workload.BULK_WRITE)).isEqualTo(1L);
+    }
+
+    @Test
+    void call() {
+        WorkloadAdmission admission = new WorkloadAdmission(100, 50, 64, new MockEnvironment());
+
+        // 1. 허가를 받으면 작업 종류를 설정해서 실행하고, 끝나면 돌려준다.
+        assertThat(admission.call(Workload.EXPORT, WorkloadContext::current)).isEqualTo(Workload.EXPORT);
+        assertThat(WorkloadContext.current()).isEqualTo(Workload.INTERACTIVE);
+
+        // 2. 같은 작업 종류 안에서 다시 호출하면 허가를 다시 받지 않는다.
+        for (int i = 0; i < 3; i++) {
+            assertThat(admission.tryAcquire(Workload.EXPORT)).isTrue();
+        }
+        Workload nested = admission.call(Workload.EXPORT, () -> admission.call(Workload.EXPORT, WorkloadContext::current));
+        assertThat(nested).isEqualTo(Workload.EXPORT);
+
+        // 3. 자리가 없으면 queue-timeout-ms 만큼 기다린 후 거절
+        assertThat(admission.tryAcquire(Workload.EXPORT)).isTrue();
+        long started = System.currentTimeMillis();
+        assertThatThrownBy(() -> admission.call(Workload.EXPORT, WorkloadContext::current))
+                .isInstanceOf(WorkloadRejectedException.class);
+        long waited = System.currentTimeMillis() - started;
+        System.out.println("\t waited = " + waited + "ms");
+        assertThat(waited).isGreaterThanOrEqualTo(50);
+        assertThat(WorkloadContext.current()).isEqualTo(Workload.INTERACTIVE);
+
+        // 4. 자리가 나면 다시 허가
+        admission.release(Workload.EXPORT);
+        admission.run(Workload.EXPORT, () -> assertThat(WorkloadContext.current()).isEqualTo(Workload.EXPORT));
+    }
+}